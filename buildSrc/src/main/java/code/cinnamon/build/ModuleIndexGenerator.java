@@ -0,0 +1,381 @@
+package code.cinnamon.build;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Builds the source of code.cinnamon.modules.GeneratedModuleIndex from the @ModuleInfo annotations
+ * in the module sources. The sources are tokenized (strings, templates and comments included), so
+ * annotation arguments may contain parentheses and classes may carry any modifiers. Names in the
+ * arguments are rewritten to the fully-qualified names their file imports, and the generated file
+ * has no imports of its own.
+ *
+ * Fails for a Module subclass without @ModuleInfo, an annotated class that is not a Module, and
+ * annotated abstract or nested classes, since none of those can be constructed by the index.
+ */
+public final class ModuleIndexGenerator {
+    private static final Set<String> MODIFIERS = Set.of(
+            "public", "internal", "private", "protected", "open", "final", "abstract", "sealed",
+            "data", "inner", "value", "inline", "expect", "actual", "external", "annotation", "enum"
+    );
+
+    private enum Kind { IDENT, STRING, NUMBER, SYMBOL }
+
+    private record Token(Kind kind, String text, int start, int end, int depth) {
+        boolean is(String value) {
+            return kind != Kind.STRING && text.equals(value);
+        }
+    }
+
+    private record Annotation(String name, int argsStart, int argsEnd) {}
+
+    private ModuleIndexGenerator() {}
+
+    /** Returns the generated file for [sources], in the given order; throws IllegalStateException listing every error. */
+    public static String generate(List<File> sources) throws IOException {
+        List<String> entries = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+        for (File source : sources) {
+            String text = Files.readString(source.toPath(), StandardCharsets.UTF_8);
+            new SourceFile(source.getName(), text).collect(entries, errors);
+        }
+        if (!errors.isEmpty()) {
+            throw new IllegalStateException("Invalid module declarations:\n  " + String.join("\n  ", errors));
+        }
+
+        StringBuilder out = new StringBuilder();
+        out.append("package code.cinnamon.modules\n\n");
+        out.append("// Generated by the generateModuleIndex task from @ModuleInfo annotations. Do not edit.\n");
+        out.append("internal object GeneratedModuleIndex {\n");
+        out.append("    val entries: List<ModuleIndexEntry> = listOf(\n");
+        out.append(String.join(",\n", entries)).append('\n');
+        out.append("    )\n");
+        out.append("}\n");
+        return out.toString();
+    }
+
+    private static final class SourceFile {
+        private final String name;
+        private final String text;
+        private final List<Token> tokens;
+        private final Map<String, String> imports = new HashMap<>();
+        private String packageName = "";
+
+        SourceFile(String name, String text) {
+            this.name = name;
+            this.text = text;
+            this.tokens = tokenize(text);
+        }
+
+        void collect(List<String> entries, List<String> errors) {
+            readHeader();
+            for (int i = 0; i < tokens.size(); i++) {
+                Token token = tokens.get(i);
+                if (!token.is("class") || (i > 0 && tokens.get(i - 1).is("::"))) continue;
+                if (i + 1 >= tokens.size() || tokens.get(i + 1).kind != Kind.IDENT) continue;
+                String className = tokens.get(i + 1).text;
+
+                boolean isAbstract = false;
+                Annotation moduleInfo = null;
+                int j = i - 1;
+                while (j >= 0) {
+                    Token before = tokens.get(j);
+                    int annotationStart = annotationStart(j);
+                    if (annotationStart >= 0) {
+                        Annotation annotation = annotationAt(annotationStart, j);
+                        if (annotation.name.equals("ModuleInfo")) moduleInfo = annotation;
+                        j = annotationStart - 1;
+                    } else if (before.kind == Kind.IDENT && MODIFIERS.contains(before.text)) {
+                        if (before.text.equals("abstract")) isAbstract = true;
+                        j--;
+                    } else {
+                        break;
+                    }
+                }
+
+                boolean isModule = extendsModule(i + 2);
+                String where = name + ": " + className;
+                if (moduleInfo == null) {
+                    if (isModule && !isAbstract) errors.add(where + " extends Module but has no @ModuleInfo");
+                    continue;
+                }
+                if (!isModule) {
+                    errors.add(where + " has @ModuleInfo but does not extend Module");
+                } else if (isAbstract) {
+                    errors.add(where + " is abstract and cannot be in the module index");
+                } else if (token.depth != 0) {
+                    errors.add(where + " must be a top-level class to be in the module index");
+                } else {
+                    String arguments = qualifiedArguments(moduleInfo);
+                    String qualifiedName = packageName.isEmpty() ? className : packageName + "." + className;
+                    entries.add("        ModuleIndexEntry(" + arguments + (arguments.isEmpty() ? "" : ", ")
+                            + "factory = { " + qualifiedName + "() })");
+                }
+            }
+        }
+
+        private void readHeader() {
+            for (int i = 0; i < tokens.size(); i++) {
+                Token token = tokens.get(i);
+                if (token.depth != 0 || token.kind != Kind.IDENT) continue;
+                if (token.text.equals("package")) {
+                    StringBuilder dotted = new StringBuilder();
+                    i = readDottedName(i + 1, dotted) - 1;
+                    packageName = dotted.toString();
+                } else if (token.text.equals("import")) {
+                    StringBuilder dotted = new StringBuilder();
+                    int next = readDottedName(i + 1, dotted);
+                    if (next < tokens.size() && tokens.get(next).is(".")) {
+                        i = next + 1; // Star import; its names cannot be resolved here.
+                        continue;
+                    }
+                    String qualified = dotted.toString();
+                    String alias = qualified.substring(qualified.lastIndexOf('.') + 1);
+                    if (next + 1 < tokens.size() && tokens.get(next).is("as")) {
+                        alias = tokens.get(next + 1).text;
+                        next += 2;
+                    }
+                    imports.put(alias, qualified);
+                    i = next - 1;
+                }
+            }
+        }
+
+        private int readDottedName(int index, StringBuilder into) {
+            int i = index;
+            while (i < tokens.size() && tokens.get(i).kind == Kind.IDENT) {
+                into.append(tokens.get(i).text);
+                if (i + 2 < tokens.size() && tokens.get(i + 1).is(".") && tokens.get(i + 2).kind == Kind.IDENT) {
+                    into.append('.');
+                    i += 2;
+                } else {
+                    return i + 1;
+                }
+            }
+            return i;
+        }
+
+        // Index of the '@' of an annotation ending at [end], or -1 if the tokens there are not one.
+        private int annotationStart(int end) {
+            int i = end;
+            if (tokens.get(i).is(")")) {
+                i = matchingOpen(i) - 1;
+                if (i < 0) return -1;
+            }
+            if (tokens.get(i).kind != Kind.IDENT) return -1;
+            while (i >= 2 && tokens.get(i - 1).is(".") && tokens.get(i - 2).kind == Kind.IDENT) i -= 2;
+            // Use-site targets such as @field:Foo.
+            if (i >= 3 && tokens.get(i - 1).is(":") && tokens.get(i - 2).kind == Kind.IDENT && tokens.get(i - 3).is("@")) {
+                return i - 3;
+            }
+            return i >= 1 && tokens.get(i - 1).is("@") ? i - 1 : -1;
+        }
+
+        private Annotation annotationAt(int start, int end) {
+            int nameEnd = end;
+            int argsStart = -1;
+            if (tokens.get(end).is(")")) {
+                argsStart = matchingOpen(end) + 1;
+                nameEnd = argsStart - 2;
+            }
+            String simpleName = tokens.get(nameEnd).text;
+            return argsStart < 0 ? new Annotation(simpleName, end, end) : new Annotation(simpleName, argsStart, end);
+        }
+
+        private int matchingOpen(int close) {
+            int depth = 0;
+            for (int i = close; i >= 0; i--) {
+                Token token = tokens.get(i);
+                if (token.is(")")) depth++;
+                else if (token.is("(") && --depth == 0) return i;
+            }
+            return -1;
+        }
+
+        private int skipBalanced(int index, String open, String close) {
+            int depth = 0;
+            for (int i = index; i < tokens.size(); i++) {
+                Token token = tokens.get(i);
+                if (token.is(open)) depth++;
+                else if (token.is(close) && --depth == 0) return i + 1;
+            }
+            return tokens.size();
+        }
+
+        // Whether the declaration whose header continues at [index] lists Module(...) as a supertype.
+        private boolean extendsModule(int index) {
+            int i = index;
+            if (i < tokens.size() && tokens.get(i).is("<")) i = skipBalanced(i, "<", ">");
+            while (i < tokens.size() && tokens.get(i).kind == Kind.IDENT
+                    && (MODIFIERS.contains(tokens.get(i).text) || tokens.get(i).is("constructor"))) {
+                i++;
+            }
+            if (i < tokens.size() && tokens.get(i).is("(")) i = skipBalanced(i, "(", ")");
+            if (i >= tokens.size() || !tokens.get(i).is(":")) return false;
+
+            int depth = 0;
+            for (i++; i < tokens.size(); i++) {
+                Token token = tokens.get(i);
+                if (token.is("(") || token.is("<")) depth++;
+                else if (token.is(")") || token.is(">")) depth--;
+                else if (depth == 0 && (token.is("{") || token.is("class") || token.is("@"))) return false;
+                else if (depth == 0 && token.is("Module") && i + 1 < tokens.size() && tokens.get(i + 1).is("(")) {
+                    return !tokens.get(i - 1).is(".") || qualifierBefore(i).equals("code.cinnamon.modules");
+                }
+            }
+            return false;
+        }
+
+        private String qualifierBefore(int index) {
+            StringBuilder qualifier = new StringBuilder();
+            int i = index - 1;
+            while (i >= 1 && tokens.get(i).is(".") && tokens.get(i - 1).kind == Kind.IDENT) {
+                qualifier.insert(0, qualifier.length() == 0 ? tokens.get(i - 1).text : tokens.get(i - 1).text + ".");
+                i -= 2;
+            }
+            return qualifier.toString();
+        }
+
+        // The argument source with whitespace and comments collapsed and imported names qualified.
+        private String qualifiedArguments(Annotation annotation) {
+            StringBuilder out = new StringBuilder();
+            for (int i = annotation.argsStart; i < annotation.argsEnd; i++) {
+                Token token = tokens.get(i);
+                if (i > annotation.argsStart && tokens.get(i - 1).end < token.start) out.append(' ');
+                out.append(token.kind == Kind.IDENT ? qualify(i) : token.text);
+            }
+            return out.toString();
+        }
+
+        private String qualify(int index) {
+            Token token = tokens.get(index);
+            boolean member = index > 0 && (tokens.get(index - 1).is(".") || tokens.get(index - 1).is("::"));
+            boolean namedArgument = index + 1 < tokens.size() && tokens.get(index + 1).is("=")
+                    && !(index + 2 < tokens.size() && tokens.get(index + 2).is("="));
+            if (member || namedArgument) return token.text;
+            return imports.getOrDefault(token.text, token.text);
+        }
+    }
+
+    private static List<Token> tokenize(String text) {
+        List<Token> tokens = new ArrayList<>();
+        int depth = 0;
+        int i = 0;
+        int length = text.length();
+        while (i < length) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (text.startsWith("//", i)) {
+                int newline = text.indexOf('\n', i);
+                i = newline < 0 ? length : newline + 1;
+            } else if (text.startsWith("/*", i)) {
+                i = skipBlockComment(text, i);
+            } else if (c == '"' || c == '\'') {
+                int end = skipString(text, i);
+                tokens.add(new Token(Kind.STRING, text.substring(i, end), i, end, depth));
+                i = end;
+            } else if (c == '`') {
+                int end = text.indexOf('`', i + 1);
+                end = end < 0 ? length : end + 1;
+                tokens.add(new Token(Kind.IDENT, text.substring(i, end), i, end, depth));
+                i = end;
+            } else if (Character.isJavaIdentifierStart(c)) {
+                int end = i + 1;
+                while (end < length && Character.isJavaIdentifierPart(text.charAt(end))) end++;
+                tokens.add(new Token(Kind.IDENT, text.substring(i, end), i, end, depth));
+                i = end;
+            } else if (Character.isDigit(c)) {
+                int end = i + 1;
+                while (end < length) {
+                    char d = text.charAt(end);
+                    boolean fraction = d == '.' && end + 1 < length && Character.isDigit(text.charAt(end + 1));
+                    if (!Character.isLetterOrDigit(d) && d != '_' && !fraction) break;
+                    end++;
+                }
+                tokens.add(new Token(Kind.NUMBER, text.substring(i, end), i, end, depth));
+                i = end;
+            } else {
+                int end = text.startsWith("::", i) ? i + 2 : i + 1;
+                if (c == '}') depth--;
+                tokens.add(new Token(Kind.SYMBOL, text.substring(i, end), i, end, depth));
+                if (c == '{') depth++;
+                i = end;
+            }
+        }
+        return tokens;
+    }
+
+    // Kotlin block comments nest.
+    private static int skipBlockComment(String text, int start) {
+        int depth = 0;
+        int i = start;
+        while (i < text.length()) {
+            if (text.startsWith("/*", i)) {
+                depth++;
+                i += 2;
+            } else if (text.startsWith("*/", i)) {
+                i += 2;
+                if (--depth == 0) return i;
+            } else {
+                i++;
+            }
+        }
+        return text.length();
+    }
+
+    // Returns the index just past the string or char literal starting at [start], templates included.
+    private static int skipString(String text, int start) {
+        int length = text.length();
+        if (text.charAt(start) == '\'') {
+            int i = start + 1;
+            while (i < length && text.charAt(i) != '\'') i += text.charAt(i) == '\\' ? 2 : 1;
+            return Math.min(i + 1, length);
+        }
+        boolean raw = text.startsWith("\"\"\"", start);
+        int i = start + (raw ? 3 : 1);
+        while (i < length) {
+            char c = text.charAt(i);
+            if (raw && text.startsWith("\"\"\"", i)) {
+                i += 3;
+                while (i < length && text.charAt(i) == '"') i++;
+                return i;
+            } else if (!raw && c == '"') {
+                return i + 1;
+            } else if (!raw && c == '\\') {
+                i += 2;
+            } else if (text.startsWith("${", i)) {
+                i = skipTemplate(text, i + 2);
+            } else {
+                i++;
+            }
+        }
+        return length;
+    }
+
+    private static int skipTemplate(String text, int start) {
+        int depth = 1;
+        int i = start;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\'') {
+                i = skipString(text, i);
+            } else if (text.startsWith("//", i) || text.startsWith("/*", i)) {
+                i = text.startsWith("//", i) ? text.indexOf('\n', i) + 1 : skipBlockComment(text, i);
+                if (i <= 0) return text.length();
+            } else {
+                if (c == '{') depth++;
+                else if (c == '}' && --depth == 0) return i + 1;
+                i++;
+            }
+        }
+        return text.length();
+    }
+}
@@ -0,0 +1,68 @@
+package code.cinnamon.bench
+
+import code.cinnamon.gui.theme.CinnamonTheme
+import code.cinnamon.gui.utils.GraphicsUtils
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.infra.Blackhole
+import java.util.concurrent.TimeUnit
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+open class GraphicsUtilsBenchmark {
+    @Param("2", "6", "12")
+    @JvmField
+    var radius = 0
+
+    private lateinit var recorder: RecordingDrawContext
+    private var progress = 0f
+
+    @Setup
+    fun setup() {
+        recorder = RecordingDrawContext()
+        CinnamonTheme.resetToDefaults()
+    }
+
+    @Benchmark
+    fun filledRoundedRect(bh: Blackhole) {
+        GraphicsUtils.drawFilledRoundedRect(recorder.context, 10, 10, 120, 24, radius, 0xE61A1A1A.toInt())
+        bh.consume(recorder.state)
+        recorder.reset()
+    }
+
+    @Benchmark
+    fun roundedRectBorder(bh: Blackhole) {
+        GraphicsUtils.drawRoundedRectBorder(recorder.context, 10, 10, 120, 24, radius, 0xFF404040.toInt())
+        bh.consume(recorder.state)
+        recorder.reset()
+    }
+
+    @Benchmark
+    fun interpolateColor(): Int {
+        progress = (progress + 0.013f) % 1f
+        return GraphicsUtils.interpolateColor(0xFF00AAFF.toInt(), 0x80202020.toInt(), progress)
+    }
+
+    @Benchmark
+    fun multiplyAlpha(): Int {
+        progress = (progress + 0.013f) % 1f
+        return GraphicsUtils.multiplyAlpha(0xE61A1A1A.toInt(), progress)
+    }
+
+    @Benchmark
+    fun themeDerivedGetters(bh: Blackhole) {
+        bh.consume(CinnamonTheme.backgroundBottom)
+        bh.consume(CinnamonTheme.disabledTextColor)
+        bh.consume(CinnamonTheme.buttonBackgroundDisabled)
+        bh.consume(CinnamonTheme.moduleDisabledColor)
+        bh.consume(CinnamonTheme.moduleBackgroundEnabled)
+        bh.consume(CinnamonTheme.moduleBackgroundDisabled)
+    }
+}
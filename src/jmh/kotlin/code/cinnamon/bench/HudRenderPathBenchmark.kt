@@ -0,0 +1,81 @@
+package code.cinnamon.bench
+
+import code.cinnamon.gui.utils.FixedPointFormatter
+import code.cinnamon.gui.utils.GraphicsUtils
+import code.cinnamon.hud.FrameTimeTracker
+import code.cinnamon.hud.elements.ArmorHudElement
+import code.cinnamon.hud.elements.FpsHudElement
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.infra.Blackhole
+import java.util.concurrent.TimeUnit
+
+/**
+ * The client-independent parts of the HUD elements' per-frame work: the shared background,
+ * the FPS frame-time strip and statistics, the Armor durability bars and the coordinate
+ * readouts. Text and item draws need a live TextRenderer and atlas, so the full
+ * renderElement paths are measured in game with /hudprofiler instead.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+open class HudRenderPathBenchmark {
+    private lateinit var recorder: RecordingDrawContext
+    private val formatter = FixedPointFormatter(1)
+    private var position = 0.0
+    private var frame = 0L
+    private val barFills = IntArray(4) { ArmorHudElement.BAR_WIDTH * (it + 1) / 4 }
+    private val barColors = IntArray(4) { 0xFF55FF55.toInt() }
+
+    @Setup
+    fun setup() {
+        recorder = RecordingDrawContext()
+        repeat(FrameTimeTracker.WINDOW) { FrameTimeTracker.record(16_000_000L + (it % 7) * 250_000L) }
+    }
+
+    @Benchmark
+    fun elementBackground(bh: Blackhole) {
+        GraphicsUtils.drawFilledRoundedRect(recorder.context, -6, -6, 52 + 12, 9 + 12, 6, 0x80000000.toInt())
+        bh.consume(recorder.state)
+        recorder.reset()
+    }
+
+    @Benchmark
+    fun frameTimeRecord() {
+        frame++
+        FrameTimeTracker.record(16_000_000L + (frame % 13) * 400_000L)
+    }
+
+    @Benchmark
+    fun frameTimeReadout(bh: Blackhole) {
+        bh.consume(FrameTimeTracker.averageNanos())
+        bh.consume(FrameTimeTracker.slowestFractionNanos(0.01))
+        bh.consume(FrameTimeTracker.slowestFractionNanos(0.001))
+        bh.consume(FrameTimeTracker.maxNanos())
+    }
+
+    @Benchmark
+    fun frameTimeStrip(bh: Blackhole) {
+        FpsHudElement.drawFrameTimeGraph(recorder.context, 23)
+        bh.consume(recorder.state)
+        recorder.reset()
+    }
+
+    @Benchmark
+    fun armorDurabilityBars(bh: Blackhole) {
+        ArmorHudElement.drawDurabilityBars(recorder.context, 18, 6, 17, barFills, barColors, 4)
+        bh.consume(recorder.state)
+        recorder.reset()
+    }
+
+    @Benchmark
+    fun coordinateReadout(): Boolean {
+        position += 0.037
+        return formatter.update(position, "X: ")
+    }
+}
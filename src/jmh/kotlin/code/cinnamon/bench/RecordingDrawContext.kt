@@ -0,0 +1,19 @@
+package code.cinnamon.bench
+
+import net.minecraft.client.gui.DrawContext
+import net.minecraft.client.gui.render.state.GuiRenderState
+
+/**
+ * A [DrawContext] backed by its own [GuiRenderState] and no client, so fills, gradients and
+ * batched quads can be recorded without a window or GL context. Text and item draws need a live
+ * client and are not supported here.
+ */
+class RecordingDrawContext {
+    val state = GuiRenderState()
+    val context = DrawContext(null, state)
+
+    /** Drops everything recorded so far; call once per benchmark operation. */
+    fun reset() {
+        state.clear()
+    }
+}
@@ -1,18 +1,26 @@
 package code.cinnamon.mixin;
 
+import code.cinnamon.hud.PingProber;
+import code.cinnamon.modules.ModuleHandle;
 import code.cinnamon.modules.ModuleManager;
-import code.cinnamon.modules.Module;
 import code.cinnamon.modules.all.ChatPrefixModule;
 import net.minecraft.client.network.ClientPlayNetworkHandler;
+import net.minecraft.network.packet.s2c.query.PingResultS2CPacket;
 
 
 import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
 import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.ModifyVariable;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 
 @Mixin(ClientPlayNetworkHandler.class)
 public abstract class ClientPlayNetworkHandlerMixin {
 
+    @Unique
+    private static final ModuleHandle<ChatPrefixModule> CHAT_PREFIX = ModuleManager.INSTANCE.handle(ChatPrefixModule.class);
+
     @ModifyVariable(
             method = "sendChatMessage(Ljava/lang/String;)V",
             at = @At("HEAD"),
@@ -21,17 +29,18 @@ public abstract class ClientPlayNetworkHandlerMixin {
     )
     private String onSendChatMessage(String message) {
         try {
-            Module module = ModuleManager.INSTANCE.getModule("ChatPrefix");
-
-            if (module instanceof ChatPrefixModule) {
-                ChatPrefixModule chatPrefixModule = (ChatPrefixModule) module;
-
-                if (chatPrefixModule.isEnabled()) {
-                    return chatPrefixModule.getPrefixedMessage(message);
-                }
+            if (CHAT_PREFIX.isEnabled()) {
+                return CHAT_PREFIX.get().getPrefixedMessage(message);
             }
         } catch (Exception e) {
         }
         return message;
     }
+
+    @Inject(method = "onPingResult", at = @At("HEAD"), cancellable = true)
+    private void onPingResult(PingResultS2CPacket packet, CallbackInfo ci) {
+        if (PingProber.INSTANCE.onPingResult(packet.startTime())) {
+            ci.cancel();
+        }
+    }
 }
\ No newline at end of file
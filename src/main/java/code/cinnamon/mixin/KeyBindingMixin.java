@@ -0,0 +1,18 @@
+package code.cinnamon.mixin;
+
+import code.cinnamon.keybindings.KeybindingManager;
+import net.minecraft.client.option.KeyBinding;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(KeyBinding.class)
+public class KeyBindingMixin {
+
+    // Keeps Cinnamon's key table in step with rebinds made here or in the vanilla controls screen.
+    @Inject(method = "updateKeysByCode", at = @At("TAIL"))
+    private static void cinnamon$onUpdateKeysByCode(CallbackInfo ci) {
+        KeybindingManager.INSTANCE.rebuildTable();
+    }
+}
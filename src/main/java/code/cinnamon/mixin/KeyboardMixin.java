@@ -0,0 +1,24 @@
+package code.cinnamon.mixin;
+
+import code.cinnamon.keybindings.KeybindingManager;
+import net.minecraft.client.Keyboard;
+import net.minecraft.client.MinecraftClient;
+import org.lwjgl.glfw.GLFW;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(Keyboard.class)
+public class KeyboardMixin {
+
+    @Shadow @Final private MinecraftClient client;
+
+    @Inject(method = "onKey", at = @At("HEAD"))
+    private void cinnamon$onKey(long window, int key, int scancode, int action, int modifiers, CallbackInfo ci) {
+        if (action != GLFW.GLFW_PRESS || window != client.getWindow().getHandle()) return;
+        KeybindingManager.INSTANCE.onKeyPressed(key, modifiers, client.currentScreen != null);
+    }
+}
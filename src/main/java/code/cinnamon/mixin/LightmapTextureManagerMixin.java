@@ -1,6 +1,8 @@
 package code.cinnamon.mixin;
 
+import code.cinnamon.modules.ModuleHandle;
 import code.cinnamon.modules.ModuleManager;
+import code.cinnamon.modules.all.FullbrightModule;
 import com.mojang.blaze3d.systems.RenderSystem;
 import com.mojang.blaze3d.textures.GpuTexture;
 import net.minecraft.client.MinecraftClient;
@@ -8,6 +10,7 @@ import net.minecraft.client.render.LightmapTextureManager;
 import org.spongepowered.asm.mixin.Final;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.Unique;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
@@ -15,13 +18,16 @@ import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 @Mixin(LightmapTextureManager.class)
 public abstract class LightmapTextureManagerMixin {
 
+    @Unique
+    private static final ModuleHandle<FullbrightModule> FULLBRIGHT = ModuleManager.INSTANCE.handle(FullbrightModule.class);
+
     @Shadow @Final private GpuTexture glTexture;
 
     @Inject(method = "update(F)V",
             at = @At("HEAD"),
             cancellable = true)
     private void cinnamon$onUpdateHEAD(float tickProgress, CallbackInfo ci) {
-        if (ModuleManager.INSTANCE.isModuleEnabled("Fullbright")) {
+        if (FULLBRIGHT.isEnabled()) {
             if (!RenderSystem.isOnRenderThread()) {
                 MinecraftClient.getInstance().execute(() -> {
                     if (this.glTexture != null) {
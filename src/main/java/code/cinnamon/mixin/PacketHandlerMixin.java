@@ -11,11 +11,17 @@ import net.minecraft.network.packet.c2s.play.ClickSlotC2SPacket;
 import net.minecraft.network.packet.c2s.play.UpdateSelectedSlotC2SPacket;
 import code.cinnamon.util.PacketHandlerAPI;
 import code.cinnamon.SharedVariables;
+import code.cinnamon.events.CinnamonEvents;
+import io.netty.channel.ChannelHandlerContext;
 
 @Mixin(ClientConnection.class)
 public class PacketHandlerMixin {
     @Inject(method = "send(Lnet/minecraft/network/packet/Packet;)V", at = @At("HEAD"), cancellable = true)
     private void onSendPacket(Packet<? extends PacketListener> packet, CallbackInfo ci) {
+        if (!CinnamonEvents.firePacketOut(packet)) {
+            ci.cancel();
+            return;
+        }
         if (isInventoryActionPacket(packet)) {
             if (PacketHandlerAPI.isPacketBlocking()) {
                 PacketHandlerAPI.getPacketQueue().offer(packet);
@@ -26,6 +32,13 @@ public class PacketHandlerMixin {
         }
     }
 
+    @Inject(method = "channelRead0(Lio/netty/channel/ChannelHandlerContext;Lnet/minecraft/network/packet/Packet;)V", at = @At("HEAD"), cancellable = true)
+    private void onReceivePacket(ChannelHandlerContext context, Packet<?> packet, CallbackInfo ci) {
+        if (!CinnamonEvents.firePacketIn(packet)) {
+            ci.cancel();
+        }
+    }
+
     private boolean isInventoryActionPacket(Packet<?> packet) {
         if (PacketHandlerAPI.isGuiPacketBlocking()) {
             return true;
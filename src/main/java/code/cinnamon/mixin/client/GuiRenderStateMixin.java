@@ -0,0 +1,32 @@
+package code.cinnamon.mixin.client;
+
+import code.cinnamon.gui.utils.DrawCommandRecorder;
+import code.cinnamon.hud.HudProfiler;
+import net.minecraft.client.gui.render.state.GuiRenderState;
+import net.minecraft.client.gui.render.state.SimpleGuiElementRenderState;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+@Mixin(GuiRenderState.class)
+public class GuiRenderStateMixin {
+
+    @Inject(method = "addSimpleElement", at = @At("HEAD"))
+    private void onAddSimpleElement(SimpleGuiElementRenderState element, CallbackInfo ci) {
+        if (HudProfiler.INSTANCE.getEnabled()) HudProfiler.simpleElementCount++;
+        if (DrawCommandRecorder.recording) DrawCommandRecorder.INSTANCE.recordSimple(element);
+    }
+
+    @Inject(method = "addText", at = @At("HEAD"))
+    private void onAddText(CallbackInfo ci) {
+        if (HudProfiler.INSTANCE.getEnabled()) HudProfiler.textElementCount++;
+        if (DrawCommandRecorder.recording) DrawCommandRecorder.INSTANCE.recordText();
+    }
+
+    @Inject(method = "addItem", at = @At("HEAD"))
+    private void onAddItem(CallbackInfo ci) {
+        if (HudProfiler.INSTANCE.getEnabled()) HudProfiler.itemElementCount++;
+        if (DrawCommandRecorder.recording) DrawCommandRecorder.INSTANCE.recordItem();
+    }
+}
@@ -19,6 +19,7 @@ public abstract class HudMixin {
     @Inject(method = "renderContent(Lnet/minecraft/client/gui/DrawContext;IIF)V", at = @At("TAIL"))
     private void onRenderContent(DrawContext context, int scaledMouseX, int scaledMouseY, float delta, CallbackInfo ci) {
         if (SharedVariables.enabled && MinecraftClient.getInstance().player != null && getHudElement().isEnabled()) {
+            getHudElement().layout(delta);
             getHudElement().renderElement(context, delta);
         }
     }
@@ -66,6 +66,7 @@ public abstract class PacketHandlerHudHandledScreenMixin {
             context.getMatrices().scale(scaleRatio, scaleRatio, context.getMatrices());
 
 
+            getHudElement().layout(delta);
             getHudElement().renderElement(context, delta);
 
             context.getMatrices().popMatrix();
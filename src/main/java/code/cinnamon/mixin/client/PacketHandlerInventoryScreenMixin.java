@@ -59,6 +59,7 @@ public abstract class PacketHandlerInventoryScreenMixin {
             float scaleRatio = getScaleRatio();
             context.getMatrices().scale(scaleRatio, scaleRatio, context.getMatrices());
 
+            getHudElement().layout(delta);
             getHudElement().renderElement(context, delta);
 
             context.getMatrices().popMatrix();
@@ -1,23 +1,28 @@
 package code.cinnamon
 
+import code.cinnamon.commands.DrawCheckCommand
+import code.cinnamon.config.ConfigStore
+import code.cinnamon.events.CinnamonEvents
+import code.cinnamon.commands.HudProfilerCommand
 import code.cinnamon.commands.SpotifyCommand
 import com.mojang.brigadier.CommandDispatcher
 import net.fabricmc.api.ModInitializer
+import net.fabricmc.loader.api.FabricLoader
 import net.fabricmc.fabric.api.client.command.v2.ClientCommandRegistrationCallback
 import net.fabricmc.fabric.api.client.command.v2.ClientCommandManager
-import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents
-import net.fabricmc.fabric.api.client.keybinding.v1.KeyBindingHelper
-import net.minecraft.client.option.KeyBinding
-import net.minecraft.client.util.InputUtil
-import org.lwjgl.glfw.GLFW
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientLifecycleEvents
 import org.slf4j.LoggerFactory
-import code.cinnamon.gui.CinnamonGuiManager
 import net.minecraft.client.gui.DrawContext
 import net.minecraft.util.Identifier
 import code.cinnamon.modules.ModuleManager
 import code.cinnamon.keybindings.KeybindingManager
 import code.cinnamon.gui.theme.ThemeConfigManager
+import code.cinnamon.hud.HudData
 import code.cinnamon.hud.HudManager
+import code.cinnamon.hud.FrameTimeTracker
+import code.cinnamon.hud.HudProfiler
+import code.cinnamon.hud.PingProber
+import code.cinnamon.gui.utils.StyledTextCache
 import net.fabricmc.fabric.api.client.rendering.v1.hud.HudElementRegistry
 import net.minecraft.client.MinecraftClient
 import net.minecraft.client.gui.screen.Screen
@@ -26,62 +31,44 @@ import net.minecraft.server.command.ServerCommandSource
 import net.minecraft.text.Text
 import code.cinnamon.spotify.SpotifyAuthManager
 import net.minecraft.text.ClickEvent
+import java.util.concurrent.CompletableFuture
 
 object Cinnamon : ModInitializer {
     private val logger = LoggerFactory.getLogger("cinnamon")
-    private lateinit var openGuiKeybinding: KeyBinding
     private var sentSpotifyMessage = false
 
     override fun onInitialize() {
         logger.info("Initializing Cinnamon mod...")
+        val startup = StartupTimeline()
+
+        // Reading the config store, the module index and the Spotify token load are independent
+        // of each other and of Minecraft; only applying their results happens on this thread.
+        val configLoad = CompletableFuture.runAsync({ startup.asyncPhase("config store") { ConfigStore.load() } }, startup.executor)
+        val moduleIndex = CompletableFuture.supplyAsync({ startup.asyncPhase("module index") { ModuleManager.discoverModules() } }, startup.executor)
+        CompletableFuture.runAsync({ startup.asyncPhase("spotify tokens") { SpotifyAuthManager.hasSavedToken() } }, startup.executor)
+
+        CinnamonEvents.init()
+        configLoad.join()
+        startup.phase("theme") { ThemeConfigManager.loadTheme() }
+        val discoveredModules = moduleIndex.join()
+        startup.phase("modules") {
+            ModuleManager.registerModules(discoveredModules)
+            code.cinnamon.modules.ModuleConfigManager.loadModules()
+        }
+        startup.phase("keybindings") { KeybindingManager.initialize() }
 
-        ThemeConfigManager.loadTheme()
-        ModuleManager.initialize()
-        code.cinnamon.modules.ModuleConfigManager.loadModules()
-        KeybindingManager.initialize()
-
-        HudManager.init()
-        logger.info("HUD system initialized")
-
-        openGuiKeybinding = KeyBindingHelper.registerKeyBinding(
-            KeyBinding(
-                "key.cinnamon.open_gui",
-                InputUtil.Type.KEYSYM,
-                GLFW.GLFW_KEY_RIGHT_SHIFT,
-                "CinnamonClient"
-            )
-        )
-
-        ClientTickEvents.END_CLIENT_TICK.register { client ->
-            if (openGuiKeybinding.wasPressed()) {
-                CinnamonGuiManager.openModulesScreen()
-            }
-
-            if (KeybindingManager.wasPressed("cinnamon.toggle_autoclicker")) {
-                ModuleManager.toggleModule("AutoClicker")
-            }
-
-            if (KeybindingManager.wasPressed("cinnamon.toggle_fullbright")) {
-                ModuleManager.toggleModule("Fullbright")
-            }
-
-            if (KeybindingManager.wasPressed("cinnamon.toggle_calculator")) {
-                ModuleManager.toggleModule("Calculator")
-            }
-
-            if (KeybindingManager.wasPressed("cinnamon.toggle_chatprefix")) {
-                ModuleManager.toggleModule("ChatPrefix")
-            }
-
-            if (KeybindingManager.wasPressed("cinnamon.open_saved_gui")) {
-                val storedScreen = code.cinnamon.SharedVariables.storedScreen
-                if (storedScreen is Screen) {
-                    MinecraftClient.getInstance().setScreen(storedScreen)
-                }
-            }
+        startup.phase("hud") {
+            HudManager.init()
+            HudData.init()
+            PingProber.init()
+            StyledTextCache.registerReloadListener()
         }
+        ClientLifecycleEvents.CLIENT_STOPPING.register { ConfigStore.shutdown() }
+        logger.info("HUD system initialized")
 
         HudElementRegistry.addLast(Identifier.of("cinnamon", "main_hud_renderer")) { drawContext: DrawContext, renderTickCounter: RenderTickCounter ->
+            FrameTimeTracker.onFrame()
+            HudProfiler.beginFrame()
             val mc = MinecraftClient.getInstance()
             if (mc != null && mc.window != null) {
                 val currentGuiScale = mc.window.scaleFactor.toFloat()
@@ -94,29 +81,40 @@ object Cinnamon : ModInitializer {
 
                 val partialTick = renderTickCounter.getTickProgress(false)
                 HudManager.render(drawContext, partialTick)
+                CinnamonEvents.fireHudRender(drawContext, partialTick)
 
                 drawContext.matrices.popMatrix()
             } else {
                 val partialTick = renderTickCounter.getTickProgress(false)
                 HudManager.render(drawContext, partialTick)
+                CinnamonEvents.fireHudRender(drawContext, partialTick)
             }
+            HudProfiler.endFrame()
+            HudProfiler.renderOverlay(drawContext)
         }
         logger.info("Cinnamon HUD renderer registered with HudElementRegistry.")
 
 
         ClientCommandRegistrationCallback.EVENT.register { dispatcher, _ ->
             SpotifyCommand.register(dispatcher)
+            HudProfilerCommand.register(dispatcher)
+            // Writes goldens under config/cinnamon/golden; only meant for development runs.
+            if (FabricLoader.getInstance().isDevelopmentEnvironment) DrawCheckCommand.register(dispatcher)
         }
 
-        ClientTickEvents.END_CLIENT_TICK.register { client ->
-            if (client.player != null && !sentSpotifyMessage) {
+        val spotifyReminder = object : CinnamonEvents.TickListener {
+            override fun onTick(client: MinecraftClient) {
+                if (client.player == null || sentSpotifyMessage) return
                 if (!SpotifyAuthManager.hasSavedToken()) {
                     client.inGameHud.chatHud.addMessage(Text.of("§a[Cinnamon] §fUse /spotify to authenticate with Spotify."))
                 }
                 sentSpotifyMessage = true
+                CinnamonEvents.TICK.unsubscribe(this)
             }
         }
+        CinnamonEvents.TICK.subscribe(spotifyReminder)
 
+        logger.info(startup.finish())
         logger.info("Cinnamon mod initialized successfully!")
     }
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+package code.cinnamon
+
+import java.util.concurrent.ConcurrentLinkedQueue
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Times the phases of [Cinnamon.onInitialize] and runs the independent ones on a small startup
+ * pool, so the whole launch cost can be reported as one line.
+ */
+internal class StartupTimeline {
+    private class Phase(val name: String, val millis: Double, val async: Boolean)
+
+    private val startNanos = System.nanoTime()
+    private val phases = ConcurrentLinkedQueue<Phase>()
+    private val threadCounter = AtomicInteger()
+
+    val executor: ExecutorService = Executors.newFixedThreadPool(2) { r ->
+        Thread(r, "Cinnamon-Startup-${threadCounter.incrementAndGet()}").apply { isDaemon = true }
+    }
+
+    fun <T> phase(name: String, block: () -> T): T = measure(name, false, block)
+
+    fun <T> asyncPhase(name: String, block: () -> T): T = measure(name, true, block)
+
+    private fun <T> measure(name: String, async: Boolean, block: () -> T): T {
+        val start = System.nanoTime()
+        try {
+            return block()
+        } finally {
+            phases.add(Phase(name, (System.nanoTime() - start) / 1_000_000.0, async))
+        }
+    }
+
+    /** Stops accepting work and returns the summary; async phases still running are not listed. */
+    fun finish(): String {
+        executor.shutdown()
+        val total = (System.nanoTime() - startNanos) / 1_000_000.0
+        val parts = phases.joinToString(", ") { phase ->
+            "%s %.1fms%s".format(java.util.Locale.ROOT, phase.name, phase.millis, if (phase.async) " (async)" else "")
+        }
+        return "Startup finished in %.1fms: %s".format(java.util.Locale.ROOT, total, parts)
+    }
+}
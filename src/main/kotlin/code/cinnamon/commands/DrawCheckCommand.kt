@@ -0,0 +1,54 @@
+package code.cinnamon.commands
+
+import code.cinnamon.gui.utils.ScreenDrawHarness
+import com.mojang.brigadier.CommandDispatcher
+import com.mojang.brigadier.context.CommandContext
+import net.fabricmc.fabric.api.client.command.v2.ClientCommandManager
+import net.fabricmc.fabric.api.client.command.v2.FabricClientCommandSource
+import net.minecraft.client.MinecraftClient
+import net.minecraft.text.Text
+
+object DrawCheckCommand {
+
+    fun register(dispatcher: CommandDispatcher<FabricClientCommandSource>) {
+        dispatcher.register(
+            ClientCommandManager.literal("drawcheck")
+                .executes { context ->
+                    runCheck(context, false)
+                }
+                .then(
+                    ClientCommandManager.literal("update")
+                        .executes { context ->
+                            runCheck(context, true)
+                        }
+                )
+        )
+    }
+
+    private fun runCheck(context: CommandContext<FabricClientCommandSource>, update: Boolean): Int {
+        val mc = MinecraftClient.getInstance()
+        val results = try {
+            ScreenDrawHarness.runAll(update)
+        } catch (e: Exception) {
+            mc.inGameHud.chatHud.addMessage(
+                Text.literal("§c[Draw Check] Failed to run: ${e.message}")
+            )
+            println("[ScreenDrawHarness] Error running draw check: ${e.message}")
+            return 0
+        }
+
+        var failed = 0
+        for (result in results) {
+            val status = when (result.status) {
+                ScreenDrawHarness.Status.PASSED -> "§apassed"
+                ScreenDrawHarness.Status.CREATED -> "§ewritten"
+                ScreenDrawHarness.Status.FAILED -> {
+                    failed++
+                    "§cdiffers (${result.file.name})"
+                }
+            }
+            mc.inGameHud.chatHud.addMessage(Text.literal("§6[Draw Check] §f${result.name}: $status"))
+        }
+        return if (failed == 0) 1 else 0
+    }
+}
@@ -0,0 +1,59 @@
+package code.cinnamon.commands
+
+import code.cinnamon.hud.HudProfiler
+import com.mojang.brigadier.CommandDispatcher
+import com.mojang.brigadier.context.CommandContext
+import net.fabricmc.fabric.api.client.command.v2.ClientCommandManager
+import net.fabricmc.fabric.api.client.command.v2.FabricClientCommandSource
+import net.minecraft.client.MinecraftClient
+import net.minecraft.text.Text
+
+object HudProfilerCommand {
+
+    fun register(dispatcher: CommandDispatcher<FabricClientCommandSource>) {
+        dispatcher.register(
+            ClientCommandManager.literal("hudprofiler")
+                .executes { context ->
+                    toggleProfiler(context)
+                }
+                .then(
+                    ClientCommandManager.literal("dump")
+                        .executes { context ->
+                            dumpProfile(context)
+                        }
+                )
+        )
+    }
+
+    private fun toggleProfiler(context: CommandContext<FabricClientCommandSource>): Int {
+        HudProfiler.toggle()
+        val state = if (HudProfiler.enabled) "§aenabled" else "§cdisabled"
+        MinecraftClient.getInstance().inGameHud.chatHud.addMessage(
+            Text.literal("§6[HUD Profiler] §fOverlay $state§f.")
+        )
+        return 1
+    }
+
+    private fun dumpProfile(context: CommandContext<FabricClientCommandSource>): Int {
+        val mc = MinecraftClient.getInstance()
+        if (!HudProfiler.enabled) {
+            mc.inGameHud.chatHud.addMessage(
+                Text.literal("§c[HUD Profiler] Profiler is not running. Use /hudprofiler to start it first.")
+            )
+            return 0
+        }
+
+        try {
+            val file = HudProfiler.dump()
+            mc.inGameHud.chatHud.addMessage(
+                Text.literal("§6[HUD Profiler] §fWrote ${file.path}")
+            )
+        } catch (e: Exception) {
+            mc.inGameHud.chatHud.addMessage(
+                Text.literal("§c[HUD Profiler] Failed to write profile: ${e.message}")
+            )
+            println("[HudProfiler] Error writing profile: ${e.message}")
+        }
+        return 1
+    }
+}
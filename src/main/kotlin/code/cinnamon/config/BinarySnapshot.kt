@@ -0,0 +1,174 @@
+package code.cinnamon.config
+
+import kotlinx.serialization.json.JsonArray
+import kotlinx.serialization.json.JsonElement
+import kotlinx.serialization.json.JsonNull
+import kotlinx.serialization.json.JsonObject
+import kotlinx.serialization.json.JsonPrimitive
+import kotlinx.serialization.json.booleanOrNull
+import java.io.ByteArrayOutputStream
+import java.io.DataOutputStream
+import java.nio.ByteBuffer
+import java.nio.BufferUnderflowException
+import java.util.zip.CRC32
+
+/**
+ * Binary form of the [ConfigStore] snapshot, read in one shot at startup instead of parsing JSON.
+ *
+ * Layout: magic, format version, payload length and CRC32 of the payload, then the payload:
+ * namespace count, and per namespace its name, entry count and (key, value) pairs. Values are
+ * JSON trees written as tagged nodes, with numbers stored as longs or doubles where they fit.
+ */
+internal object BinarySnapshot {
+    private const val MAGIC = 0x434E4D53 // "CNMS"
+    private const val FORMAT_VERSION = 1
+    private const val HEADER_SIZE = 16
+
+    private const val TAG_NULL: Int = 0
+    private const val TAG_TRUE: Int = 1
+    private const val TAG_FALSE: Int = 2
+    private const val TAG_LONG: Int = 3
+    private const val TAG_DOUBLE: Int = 4
+    private const val TAG_NUMBER_TEXT: Int = 5
+    private const val TAG_STRING: Int = 6
+    private const val TAG_ARRAY: Int = 7
+    private const val TAG_OBJECT: Int = 8
+
+    fun encode(namespaces: Map<String, Map<String, JsonElement>>): ByteArray {
+        val payloadBytes = ByteArrayOutputStream()
+        val payload = DataOutputStream(payloadBytes)
+        payload.writeInt(namespaces.size)
+        for ((namespace, entries) in namespaces) {
+            writeString(payload, namespace)
+            payload.writeInt(entries.size)
+            for ((key, value) in entries) {
+                writeString(payload, key)
+                writeElement(payload, value)
+            }
+        }
+        payload.flush()
+        val body = payloadBytes.toByteArray()
+
+        val crc = CRC32()
+        crc.update(body)
+        return ByteBuffer.allocate(HEADER_SIZE + body.size)
+            .putInt(MAGIC)
+            .putInt(FORMAT_VERSION)
+            .putInt(body.size)
+            .putInt(crc.value.toInt())
+            .put(body)
+            .array()
+    }
+
+    /** Returns null if [bytes] is not a complete snapshot of a format version this build reads. */
+    fun decode(bytes: ByteArray): Map<String, Map<String, JsonElement>>? {
+        if (bytes.size < HEADER_SIZE) return null
+        val buffer = ByteBuffer.wrap(bytes)
+        if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) return null
+        val length = buffer.getInt()
+        val checksum = buffer.getInt()
+        if (length != bytes.size - HEADER_SIZE) return null
+
+        val crc = CRC32()
+        crc.update(bytes, HEADER_SIZE, length)
+        if (crc.value.toInt() != checksum) return null
+
+        return try {
+            val namespaces = LinkedHashMap<String, Map<String, JsonElement>>()
+            repeat(buffer.getInt()) {
+                val namespace = readString(buffer)
+                val entries = LinkedHashMap<String, JsonElement>()
+                repeat(buffer.getInt()) {
+                    entries[readString(buffer)] = readElement(buffer)
+                }
+                namespaces[namespace] = entries
+            }
+            if (buffer.hasRemaining()) null else namespaces
+        } catch (e: BufferUnderflowException) {
+            null
+        } catch (e: IllegalArgumentException) {
+            null
+        }
+    }
+
+    private fun writeElement(out: DataOutputStream, element: JsonElement) {
+        when (element) {
+            is JsonNull -> out.writeByte(TAG_NULL)
+            is JsonPrimitive -> writePrimitive(out, element)
+            is JsonArray -> {
+                out.writeByte(TAG_ARRAY)
+                out.writeInt(element.size)
+                element.forEach { writeElement(out, it) }
+            }
+            is JsonObject -> {
+                out.writeByte(TAG_OBJECT)
+                out.writeInt(element.size)
+                element.forEach { (key, value) ->
+                    writeString(out, key)
+                    writeElement(out, value)
+                }
+            }
+        }
+    }
+
+    private fun writePrimitive(out: DataOutputStream, primitive: JsonPrimitive) {
+        if (primitive.isString) {
+            out.writeByte(TAG_STRING)
+            writeString(out, primitive.content)
+            return
+        }
+        primitive.booleanOrNull?.let {
+            out.writeByte(if (it) TAG_TRUE else TAG_FALSE)
+            return
+        }
+        val text = primitive.content
+        val asLong = text.toLongOrNull()
+        val asDouble = text.toDoubleOrNull()
+        when {
+            asLong != null -> {
+                out.writeByte(TAG_LONG)
+                out.writeLong(asLong)
+            }
+            // Only when it reads back as the same text, so the decoded tree is unchanged.
+            asDouble != null && asDouble.toString() == text -> {
+                out.writeByte(TAG_DOUBLE)
+                out.writeDouble(asDouble)
+            }
+            else -> {
+                out.writeByte(TAG_NUMBER_TEXT)
+                writeString(out, text)
+            }
+        }
+    }
+
+    private fun readElement(buffer: ByteBuffer): JsonElement = when (val tag = buffer.get().toInt()) {
+        TAG_NULL -> JsonNull
+        TAG_TRUE -> JsonPrimitive(true)
+        TAG_FALSE -> JsonPrimitive(false)
+        TAG_LONG -> JsonPrimitive(buffer.getLong())
+        TAG_DOUBLE -> JsonPrimitive(buffer.getDouble())
+        TAG_NUMBER_TEXT -> JsonPrimitive(readString(buffer).toBigDecimal())
+        TAG_STRING -> JsonPrimitive(readString(buffer))
+        TAG_ARRAY -> JsonArray(List(buffer.getInt()) { readElement(buffer) })
+        TAG_OBJECT -> {
+            val entries = LinkedHashMap<String, JsonElement>()
+            repeat(buffer.getInt()) { entries[readString(buffer)] = readElement(buffer) }
+            JsonObject(entries)
+        }
+        else -> throw IllegalArgumentException("Unknown snapshot tag $tag")
+    }
+
+    private fun writeString(out: DataOutputStream, value: String) {
+        val bytes = value.toByteArray(Charsets.UTF_8)
+        out.writeInt(bytes.size)
+        out.write(bytes)
+    }
+
+    private fun readString(buffer: ByteBuffer): String {
+        val length = buffer.getInt()
+        require(length >= 0 && length <= buffer.remaining()) { "Bad string length $length" }
+        val bytes = ByteArray(length)
+        buffer.get(bytes)
+        return String(bytes, Charsets.UTF_8)
+    }
+}
@@ -0,0 +1,268 @@
+package code.cinnamon.config
+
+import kotlinx.serialization.KSerializer
+import kotlinx.serialization.json.Json
+import kotlinx.serialization.json.JsonElement
+import kotlinx.serialization.json.JsonNull
+import kotlinx.serialization.json.JsonObject
+import kotlinx.serialization.json.buildJsonObject
+import kotlinx.serialization.json.jsonObject
+import kotlinx.serialization.json.jsonPrimitive
+import kotlinx.serialization.json.put
+import java.io.File
+import java.io.FileOutputStream
+import java.nio.file.Paths
+import java.util.concurrent.ConcurrentHashMap
+import java.util.zip.CRC32
+
+/**
+ * Single store for every persisted Cinnamon setting, split into typed [ConfigNamespace]s.
+ *
+ * State lives in memory and is loaded once at startup from a snapshot plus a write-ahead journal
+ * (store.journal). A change appends one checksummed line for the changed key instead of rewriting
+ * a whole file; once the journal grows past [COMPACT_THRESHOLD] records, or on shutdown, it is
+ * folded into a new snapshot. A torn or corrupt journal line ends replay, so a partial write can
+ * only lose that last change, never the state before it.
+ *
+ * The snapshot is written twice: store.bin ([BinarySnapshot]) is what startup reads, and store.json
+ * is a human-editable export. If store.json is newer than store.bin (edited by hand) or the binary
+ * snapshot is missing or damaged, the JSON is loaded instead and the binary is rewritten from it.
+ */
+object ConfigStore {
+    private const val COMPACT_THRESHOLD = 256
+    private const val SNAPSHOT_VERSION = 1
+
+    private val configDir = Paths.get("config", "cinnamon").toFile()
+    private val snapshotFile = File(configDir, "store.json")
+    private val binarySnapshotFile = File(configDir, "store.bin")
+    private val journalFile = File(configDir, "store.journal")
+
+    internal val json = Json { ignoreUnknownKeys = true }
+    private val prettyJson = Json { prettyPrint = true }
+
+    private val values = ConcurrentHashMap<String, ConcurrentHashMap<String, JsonElement>>()
+    // Changes not yet in the journal, keyed by namespace and key; JsonNull marks a removal.
+    private val unjournaled = ConcurrentHashMap<Pair<String, String>, JsonElement>()
+    private var journalRecords = 0
+    @Volatile private var loaded = false
+
+    /**
+     * Reads the snapshot and replays the journal, once. Called from the startup pool so the read
+     * overlaps other work; any earlier access waits for it instead of seeing an empty store.
+     */
+    fun load() {
+        if (loaded) return
+        synchronized(this) {
+            if (loaded) return
+            readFromDisk()
+            loaded = true
+        }
+    }
+
+    fun <T> namespace(name: String, serializer: KSerializer<T>): ConfigNamespace<T> =
+        ConfigNamespace(name, serializer)
+
+    internal fun get(namespace: String, key: String): JsonElement? {
+        load()
+        return values[namespace]?.get(key)
+    }
+
+    internal fun keys(namespace: String): Set<String> {
+        load()
+        return values[namespace]?.keys?.toSet() ?: emptySet()
+    }
+
+    internal fun put(namespace: String, key: String, value: JsonElement) {
+        load()
+        val entries = values.getOrPut(namespace) { ConcurrentHashMap() }
+        if (entries.put(key, value) == value) return
+        markChanged(namespace, key, value)
+    }
+
+    internal fun remove(namespace: String, key: String) {
+        load()
+        if (values[namespace]?.remove(key) == null) return
+        markChanged(namespace, key, JsonNull)
+    }
+
+    /** Journals any pending changes, folds everything into a fresh snapshot and waits for it. */
+    fun shutdown() {
+        load()
+        ConfigWriter.flush { compact() }
+    }
+
+    private fun markChanged(namespace: String, key: String, value: JsonElement) {
+        unjournaled[namespace to key] = value
+        ConfigWriter.submit("config-store", "ConfigStore") { appendJournal() }
+    }
+
+    // Writer thread only.
+    private fun appendJournal() {
+        if (unjournaled.isEmpty()) return
+        val builder = StringBuilder()
+        var count = 0
+        for (id in unjournaled.keys.toList()) {
+            val value = unjournaled.remove(id) ?: continue
+            val record = buildJsonObject {
+                put("n", id.first)
+                put("k", id.second)
+                put("v", value)
+            }.toString()
+            builder.append(checksum(record)).append(' ').append(record).append('\n')
+            count++
+        }
+
+        configDir.mkdirs()
+        FileOutputStream(journalFile, true).use { out ->
+            out.write(builder.toString().toByteArray(Charsets.UTF_8))
+            out.fd.sync()
+        }
+        journalRecords += count
+        if (journalRecords >= COMPACT_THRESHOLD) compact()
+    }
+
+    // Writer thread only. The journal is dropped only after the snapshot has replaced the old one.
+    private fun compact() {
+        appendJournal()
+        // One frozen copy for both files, so they agree even while puts keep landing.
+        val frozen = values.mapValues { it.value.toMap() }
+        val snapshot = buildJsonObject {
+            put("version", SNAPSHOT_VERSION)
+            put("namespaces", JsonObject(frozen.mapValues { (_, entries) -> JsonObject(entries) }))
+        }
+        ConfigWriter.writeAtomically(snapshotFile, prettyJson.encodeToString(JsonElement.serializer(), snapshot))
+        // Written after the export so its mtime is not older; see readFromDisk().
+        ConfigWriter.writeAtomically(binarySnapshotFile, BinarySnapshot.encode(frozen))
+        journalFile.delete()
+        journalRecords = 0
+        println("[ConfigStore] Compacted config store into ${snapshotFile.absolutePath}")
+    }
+
+    private fun readFromDisk() {
+        val jsonEdited = snapshotFile.exists() && snapshotFile.lastModified() > binarySnapshotFile.lastModified()
+        // A hand-edited export wins; otherwise JSON is only the fallback for a missing or damaged store.bin.
+        val fromJson = when {
+            jsonEdited && loadJsonSnapshot() -> true
+            loadBinarySnapshot() -> false
+            else -> !jsonEdited && loadJsonSnapshot()
+        }
+        if (fromJson) {
+            // Bring store.bin back in line with the JSON that was just read.
+            ConfigWriter.submit("config-store-compact", "ConfigStore") { compact() }
+        }
+
+        if (journalFile.exists()) {
+            var replayed = 0
+            for (line in journalFile.readLines()) {
+                if (!replay(line)) {
+                    println("[ConfigStore] Journal ends in a damaged record after $replayed records; ignoring the rest")
+                    // Appending after the damaged line would hide new records from the next load.
+                    ConfigWriter.submit("config-store-compact", "ConfigStore") { compact() }
+                    break
+                }
+                replayed++
+            }
+            journalRecords = replayed
+        }
+        println("[ConfigStore] Loaded ${values.size} namespaces from ${configDir.absolutePath}")
+    }
+
+    private fun loadBinarySnapshot(): Boolean {
+        if (!binarySnapshotFile.exists()) return false
+        val namespaces = try {
+            BinarySnapshot.decode(binarySnapshotFile.readBytes())
+        } catch (e: Exception) {
+            null
+        }
+        if (namespaces == null) {
+            println("[ConfigStore] Binary snapshot is damaged or from another version; falling back to store.json")
+            return false
+        }
+        namespaces.forEach { (namespace, entries) -> values[namespace] = ConcurrentHashMap(entries) }
+        return true
+    }
+
+    private fun loadJsonSnapshot(): Boolean {
+        if (!snapshotFile.exists()) return false
+        return try {
+            val root = json.parseToJsonElement(snapshotFile.readText()).jsonObject
+            val namespaces = root["namespaces"]?.jsonObject?.mapValues { (_, entries) -> entries.jsonObject }.orEmpty()
+            namespaces.forEach { (namespace, entries) -> values[namespace] = ConcurrentHashMap(entries) }
+            println("[ConfigStore] Loaded snapshot from ${snapshotFile.name}")
+            true
+        } catch (e: Exception) {
+            println("[ConfigStore] Failed to read snapshot: ${e.message}")
+            false
+        }
+    }
+
+    private fun replay(line: String): Boolean {
+        val separator = line.indexOf(' ')
+        if (separator <= 0) return false
+        val record = line.substring(separator + 1)
+        if (line.substring(0, separator) != checksum(record)) return false
+
+        return try {
+            val entry = json.parseToJsonElement(record).jsonObject
+            val namespace = entry.getValue("n").jsonPrimitive.content
+            val key = entry.getValue("k").jsonPrimitive.content
+            val value = entry.getValue("v")
+            if (value is JsonNull) {
+                values[namespace]?.remove(key)
+            } else {
+                values.getOrPut(namespace) { ConcurrentHashMap() }[key] = value
+            }
+            true
+        } catch (e: Exception) {
+            false
+        }
+    }
+
+    private fun checksum(record: String): String {
+        val crc = CRC32()
+        crc.update(record.toByteArray(Charsets.UTF_8))
+        return java.lang.Long.toHexString(crc.value)
+    }
+}
+
+/** A typed view of one namespace of the [ConfigStore]. */
+class ConfigNamespace<T> internal constructor(val name: String, private val serializer: KSerializer<T>) {
+
+    fun get(key: String): T? {
+        val element = ConfigStore.get(name, key) ?: return null
+        return try {
+            ConfigStore.json.decodeFromJsonElement(serializer, element)
+        } catch (e: Exception) {
+            println("[ConfigStore] Failed to decode $name/$key: ${e.message}")
+            null
+        }
+    }
+
+    fun put(key: String, value: T) {
+        ConfigStore.put(name, key, ConfigStore.json.encodeToJsonElement(serializer, value))
+    }
+
+    fun remove(key: String) = ConfigStore.remove(name, key)
+
+    fun keys(): Set<String> = ConfigStore.keys(name)
+
+    fun isEmpty(): Boolean = keys().isEmpty()
+
+    /** Decoded entries; ones that no longer decode are skipped. */
+    fun entries(): Map<String, T> {
+        val result = LinkedHashMap<String, T>()
+        for (key in keys()) get(key)?.let { result[key] = it }
+        return result
+    }
+
+    /** Imports a pre-store JSON file once, while this namespace is still empty. */
+    fun importLegacy(file: File, import: (String) -> Unit) {
+        if (!isEmpty() || !file.exists()) return
+        try {
+            import(file.readText())
+            println("[ConfigStore] Imported ${file.name} into namespace '$name'")
+        } catch (e: Exception) {
+            println("[ConfigStore] Failed to import ${file.name}: ${e.message}")
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package code.cinnamon.config
+
+import java.io.File
+import java.io.FileOutputStream
+import java.nio.file.AtomicMoveNotSupportedException
+import java.nio.file.Files
+import java.nio.file.StandardCopyOption
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Executors
+import java.util.concurrent.ScheduledExecutorService
+import java.util.concurrent.TimeUnit
+
+/**
+ * Runs config persistence on a background thread. Requests with the same key within [DEBOUNCE_MS]
+ * are coalesced into one run of the latest action; callers hand over an immutable snapshot, so
+ * nothing is encoded or written on the calling thread. Whole files are replaced through a temp
+ * file and an atomic move, so a crash never leaves a half-written file behind.
+ */
+object ConfigWriter {
+    private const val DEBOUNCE_MS = 500L
+    private const val FLUSH_TIMEOUT_MS = 5000L
+
+    private class PendingWrite(val tag: String, val action: () -> Unit)
+
+    private val pending = ConcurrentHashMap<String, PendingWrite>()
+
+    private val executor: ScheduledExecutorService = Executors.newSingleThreadScheduledExecutor { r ->
+        Thread(r, "Cinnamon-ConfigWriter").apply { isDaemon = true }
+    }
+
+    /** Schedules [action] under [key]; a later request with the same key replaces it until it runs. */
+    fun submit(key: String, tag: String, action: () -> Unit) {
+        if (pending.put(key, PendingWrite(tag, action)) == null) {
+            executor.schedule({ runPending(key) }, DEBOUNCE_MS, TimeUnit.MILLISECONDS)
+        }
+    }
+
+    /** Runs everything still pending, then [then], on the writer thread and waits for it. */
+    fun flush(then: (() -> Unit)? = null) {
+        try {
+            executor.submit {
+                pending.keys.toList().forEach { runPending(it) }
+                then?.invoke()
+            }.get(FLUSH_TIMEOUT_MS, TimeUnit.MILLISECONDS)
+        } catch (e: Exception) {
+            println("[ConfigWriter] Failed to flush pending config writes: ${e.message}")
+        }
+    }
+
+    private fun runPending(key: String) {
+        val write = pending.remove(key) ?: return
+        try {
+            write.action()
+        } catch (e: Exception) {
+            println("[${write.tag}] Failed to save: ${e.message}")
+        }
+    }
+
+    internal fun writeAtomically(file: File, content: String) {
+        writeAtomically(file, content.toByteArray(Charsets.UTF_8))
+    }
+
+    internal fun writeAtomically(file: File, content: ByteArray) {
+        file.parentFile?.mkdirs()
+        val temp = File(file.parentFile, "${file.name}.tmp")
+        FileOutputStream(temp).use { out ->
+            out.write(content)
+            out.fd.sync()
+        }
+        try {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING)
+        } catch (e: AtomicMoveNotSupportedException) {
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING)
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package code.cinnamon.events
+
+import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents
+import net.fabricmc.fabric.api.client.message.v1.ClientSendMessageEvents
+import net.minecraft.client.MinecraftClient
+import net.minecraft.client.gui.DrawContext
+import net.minecraft.client.gui.screen.Screen
+import net.minecraft.network.packet.Packet
+
+/**
+ * Client events for modules and HUD elements. Modules should subscribe through
+ * [code.cinnamon.modules.Module.subscribe] so their listeners are dropped when they are disabled.
+ */
+object CinnamonEvents {
+    fun interface TickListener {
+        fun onTick(client: MinecraftClient)
+    }
+
+    fun interface HudRenderListener {
+        fun onRenderHud(context: DrawContext, tickDelta: Float)
+    }
+
+    /** Returns false to stop the message from being sent. */
+    fun interface ChatSendListener {
+        fun onChatSend(message: String): Boolean
+    }
+
+    /** Returns false to drop the packet. Incoming packets are dispatched on the network thread. */
+    fun interface PacketListener {
+        fun onPacket(packet: Packet<*>): Boolean
+    }
+
+    fun interface ScreenOpenListener {
+        fun onScreenOpen(screen: Screen?)
+    }
+
+    @JvmField val TICK = EventChannel<TickListener>(emptyArray())
+    @JvmField val HUD_RENDER = EventChannel<HudRenderListener>(emptyArray())
+    @JvmField val CHAT_SEND = EventChannel<ChatSendListener>(emptyArray())
+    @JvmField val PACKET_IN = EventChannel<PacketListener>(emptyArray())
+    @JvmField val PACKET_OUT = EventChannel<PacketListener>(emptyArray())
+    @JvmField val SCREEN_OPEN = EventChannel<ScreenOpenListener>(emptyArray())
+
+    /** Bridges the Fabric callbacks; HUD, packet and screen events are fired from Cinnamon and its mixins. */
+    fun init() {
+        ClientTickEvents.END_CLIENT_TICK.register { client -> fireTick(client) }
+        ClientSendMessageEvents.ALLOW_CHAT.register { message -> fireChatSend(message) }
+    }
+
+    fun fireTick(client: MinecraftClient) {
+        for (listener in TICK.listeners) listener.onTick(client)
+    }
+
+    fun fireHudRender(context: DrawContext, tickDelta: Float) {
+        for (listener in HUD_RENDER.listeners) listener.onRenderHud(context, tickDelta)
+    }
+
+    fun fireChatSend(message: String): Boolean {
+        for (listener in CHAT_SEND.listeners) {
+            if (!listener.onChatSend(message)) return false
+        }
+        return true
+    }
+
+    @JvmStatic
+    fun firePacketIn(packet: Packet<*>): Boolean {
+        for (listener in PACKET_IN.listeners) {
+            if (!listener.onPacket(packet)) return false
+        }
+        return true
+    }
+
+    @JvmStatic
+    fun firePacketOut(packet: Packet<*>): Boolean {
+        for (listener in PACKET_OUT.listeners) {
+            if (!listener.onPacket(packet)) return false
+        }
+        return true
+    }
+
+    @JvmStatic
+    fun fireScreenOpen(screen: Screen?) {
+        for (listener in SCREEN_OPEN.listeners) listener.onScreenOpen(screen)
+    }
+}
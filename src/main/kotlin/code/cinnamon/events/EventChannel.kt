@@ -0,0 +1,29 @@
+package code.cinnamon.events
+
+/**
+ * Listeners for one event type. The array is copied on every (rare) subscribe/unsubscribe and
+ * read without locking, so dispatching is a plain loop over [listeners] with no allocation.
+ */
+class EventChannel<L : Any>(empty: Array<L>) {
+    @Volatile
+    var listeners: Array<L> = empty
+        private set
+
+    @Synchronized
+    fun subscribe(listener: L) {
+        listeners = listeners + listener
+    }
+
+    @Synchronized
+    fun unsubscribe(listener: L) {
+        val current = listeners
+        val index = current.indexOf(listener)
+        if (index < 0) return
+        val next = current.copyOf(current.size - 1)
+        System.arraycopy(current, index + 1, next, index, current.size - index - 1)
+        @Suppress("UNCHECKED_CAST")
+        listeners = next as Array<L>
+    }
+
+    fun isEmpty(): Boolean = listeners.isEmpty()
+}
@@ -7,7 +7,10 @@ import net.minecraft.client.gui.screen.Screen
 import net.minecraft.text.Text
 import code.cinnamon.gui.components.CinnamonButton
 import code.cinnamon.gui.theme.CinnamonTheme
+import code.cinnamon.gui.utils.AnimationClock
 import code.cinnamon.gui.utils.GraphicsUtils
+import code.cinnamon.gui.utils.QuadBatch
+import code.cinnamon.gui.utils.StyledTextCache
 import net.minecraft.util.Identifier
 import kotlin.math.max
 import kotlin.math.min
@@ -42,6 +45,16 @@ abstract class CinnamonScreen(title: Text) : Screen(title) {
         const val MAX_GUI_HEIGHT = 600
 
         const val TARGET_SCALE_FACTOR = 2f
+        private const val CLOSE_BUTTON_SIZE = 16
+    }
+
+    private val closeButtonX: Int get() = guiX + guiWidth - CLOSE_BUTTON_SIZE - 8
+    private val closeButtonY: Int get() = guiY + (HEADER_HEIGHT - CLOSE_BUTTON_SIZE) / 2
+
+    /** Center of the close button in window coordinates, as mouse events receive it. */
+    internal fun closeButtonCenter(): Pair<Double, Double> {
+        val scaleRatio = getScaleRatio()
+        return (closeButtonX + CLOSE_BUTTON_SIZE / 2.0) * scaleRatio to (closeButtonY + CLOSE_BUTTON_SIZE / 2.0) * scaleRatio
     }
 
     override fun init() {
@@ -50,7 +63,7 @@ abstract class CinnamonScreen(title: Text) : Screen(title) {
         calculateGuiDimensions()
         initializeComponents()
         initializeSidebarButtons()
-        lastAnimationTime = System.currentTimeMillis()
+        lastAnimationTime = AnimationClock.now()
     }
 
     protected open fun getDesiredGuiWidth(effectiveScaledWidth: Int): Int {
@@ -104,7 +117,7 @@ abstract class CinnamonScreen(title: Text) : Screen(title) {
     override fun renderBackground(context: DrawContext, mouseX: Int, mouseY: Int, delta: Float) {}
 
     override fun render(context: DrawContext, mouseX: Int, mouseY: Int, delta: Float) {
-        val currentTime = System.currentTimeMillis()
+        val currentTime = AnimationClock.now()
         val deltaTime = (currentTime - lastAnimationTime) / 1000.0f
         lastAnimationTime = currentTime
 
@@ -169,8 +182,9 @@ abstract class CinnamonScreen(title: Text) : Screen(title) {
 
         renderHamburgerIcon(context, guiX + PADDING, headerY + (HEADER_HEIGHT - 20) / 2, 20, 20, scaledMouseX, scaledMouseY)
 
-        val titleText = this.title.copy().setStyle(Style.EMPTY.withFont(theme.getCurrentFont()))
-        val titleTextWidth = textRenderer.getWidth(titleText)
+        val titleString = this.title.string
+        val titleText = StyledTextCache.get(titleString)
+        val titleTextWidth = StyledTextCache.width(titleString)
         val titleX = guiX + (guiWidth - titleTextWidth) / 2
 
         context.drawText(
@@ -188,9 +202,7 @@ abstract class CinnamonScreen(title: Text) : Screen(title) {
             theme.borderColor
         )
 
-        val closeButtonSize = 16
-        val closeButtonX = guiX + guiWidth - closeButtonSize - 8
-        val closeButtonY = headerY + (HEADER_HEIGHT - closeButtonSize) / 2
+        val closeButtonSize = CLOSE_BUTTON_SIZE
 
         val isCloseHovered = scaledMouseX >= closeButtonX && scaledMouseX < closeButtonX + closeButtonSize &&
                 scaledMouseY >= closeButtonY && scaledMouseY < closeButtonY + closeButtonSize
@@ -202,24 +214,17 @@ abstract class CinnamonScreen(title: Text) : Screen(title) {
         val padding = 3
 
 
-        for (i in 0 until closeButtonSize - 2 * padding) {
-            for (j in 0 until thickness) {
-                val x = closeButtonX + padding + i
-                val y = closeButtonY + padding + i + j
-                if (y < closeButtonY + closeButtonSize - padding) {
-                    context.fill(x, y, x + 1, y + 1, closeButtonColor)
-                }
-            }
-        }
-
+        val bottom = closeButtonY + closeButtonSize - padding
 
-        for (i in 0 until closeButtonSize - 2 * padding) {
-            for (j in 0 until thickness) {
-                val x = closeButtonX + closeButtonSize - padding - 1 - i
-                val y = closeButtonY + padding + i + j
-                if (y < closeButtonY + closeButtonSize - padding) {
-                    context.fill(x, y, x + 1, y + 1, closeButtonColor)
-                }
+        // One column segment per step of each diagonal, batched into a single element.
+        QuadBatch.draw(context) {
+            for (i in 0 until closeButtonSize - 2 * padding) {
+                val y = closeButtonY + padding + i
+                val yEnd = minOf(y + thickness, bottom)
+                val leftX = closeButtonX + padding + i
+                val rightX = closeButtonX + closeButtonSize - padding - 1 - i
+                QuadBatch.fill(leftX, y, leftX + 1, yEnd, closeButtonColor)
+                QuadBatch.fill(rightX, y, rightX + 1, yEnd, closeButtonColor)
             }
         }
     }
@@ -246,9 +251,7 @@ abstract class CinnamonScreen(title: Text) : Screen(title) {
         }
 
         // 2. Handle close button click
-        val closeButtonSize = 16
-        val closeButtonX = guiX + guiWidth - closeButtonSize - 8
-        val closeButtonY = guiY + (HEADER_HEIGHT - closeButtonSize) / 2
+        val closeButtonSize = CLOSE_BUTTON_SIZE
         if (scaledMouseX >= closeButtonX && scaledMouseX < closeButtonX + closeButtonSize && scaledMouseY >= closeButtonY && scaledMouseY < closeButtonY + closeButtonSize) {
             close()
             return true
@@ -321,9 +324,11 @@ abstract class CinnamonScreen(title: Text) : Screen(title) {
         val isHovered = scaledMouseX >= x && scaledMouseX < x + width && scaledMouseY >= y && scaledMouseY < y + height
         val color = if (isHovered) theme.accentColor else theme.primaryTextColor
         val lineY = y + (height - 8) / 2
-        context.fill(x, lineY, x + width, lineY + 2, color)
-        context.fill(x, lineY + 6, x + width, lineY + 8, color)
-        context.fill(x, lineY + 12, x + width, lineY + 14, color)
+        QuadBatch.draw(context) {
+            QuadBatch.fill(x, lineY, x + width, lineY + 2, color)
+            QuadBatch.fill(x, lineY + 6, x + width, lineY + 8, color)
+            QuadBatch.fill(x, lineY + 12, x + width, lineY + 14, color)
+        }
     }
 
     private fun initializeSidebarButtons() {
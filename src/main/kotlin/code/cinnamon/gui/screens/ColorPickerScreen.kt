@@ -1,5 +1,6 @@
 package code.cinnamon.gui.screens
 
+import code.cinnamon.gui.utils.StyledTextCache
 import net.minecraft.client.gui.DrawContext
 import net.minecraft.text.Text
 import net.minecraft.text.Style
@@ -41,7 +42,7 @@ class ColorPickerScreen(
     override fun renderFooter(context: DrawContext, scaledMouseX: Int, scaledMouseY: Int, delta: Float) {}
 
     override fun renderContent(context: DrawContext, scaledMouseX: Int, scaledMouseY: Int, delta: Float) {
-        val titleText = Text.literal("Select Color").setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont()))
+        val titleText = StyledTextCache.get("Select Color")
         val titleWidth = textRenderer.getWidth(titleText)
         context.drawText(
             textRenderer,
@@ -87,7 +88,7 @@ class ColorPickerScreen(
             applyButtonX, buttonsY, applyButtonX + buttonDrawWidth, buttonsY + buttonDrawHeight,
             if (applyHovered) CinnamonTheme.accentColorHover else CinnamonTheme.accentColor
         )
-        val applyText = Text.literal("Apply").setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont()))
+        val applyText = StyledTextCache.get("Apply")
         context.drawText(
             textRenderer,
             applyText,
@@ -104,7 +105,7 @@ class ColorPickerScreen(
             cancelButtonX, buttonsY, cancelButtonX + buttonDrawWidth, buttonsY + buttonDrawHeight,
             if (cancelHovered) CinnamonTheme.buttonBackgroundHover else CinnamonTheme.buttonBackground
         )
-        val cancelText = Text.literal("Cancel").setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont()))
+        val cancelText = StyledTextCache.get("Cancel")
         context.drawText(
             textRenderer,
             cancelText,
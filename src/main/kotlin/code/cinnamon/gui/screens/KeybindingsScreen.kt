@@ -1,5 +1,7 @@
 package code.cinnamon.gui.screens
 
+import code.cinnamon.gui.utils.QuadBatch
+import code.cinnamon.gui.utils.StyledTextCache
 import net.minecraft.client.gui.DrawContext
 import net.minecraft.text.Text
 import net.minecraft.text.Style
@@ -40,7 +42,7 @@ class KeybindingsScreen : CinnamonScreen(Text.literal("Keybindings").setStyle(St
             getFooterY() + 8,
             60,
             CinnamonTheme.BUTTON_HEIGHT_SMALL,
-            Text.literal("Back").setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont())),
+            StyledTextCache.get("Back"),
             { _, _ -> CinnamonGuiManager.openModulesScreen() }
         ))
 
@@ -49,7 +51,7 @@ class KeybindingsScreen : CinnamonScreen(Text.literal("Keybindings").setStyle(St
             getFooterY() + 8,
             80,
             CinnamonTheme.BUTTON_HEIGHT_SMALL,
-            Text.literal("Reset All").setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont())),
+            StyledTextCache.get("Reset All"),
             { _, _ -> resetAllKeybindings() }
         ))
     }
@@ -66,7 +68,7 @@ class KeybindingsScreen : CinnamonScreen(Text.literal("Keybindings").setStyle(St
 
         context.drawText(
             textRenderer,
-            Text.literal("Click on a key to change it").setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont())),
+            StyledTextCache.get("Click on a key to change it"),
             contentX + 15,
             contentY + 20,
             CinnamonTheme.titleColor,
@@ -92,7 +94,7 @@ class KeybindingsScreen : CinnamonScreen(Text.literal("Keybindings").setStyle(St
 
             context.drawText(
                 textRenderer,
-                Text.literal(indicatorText).setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont())),
+                StyledTextCache.get(indicatorText),
                 indicatorX,
                 indicatorY,
                 CinnamonTheme.titleColor,
@@ -154,7 +156,7 @@ class KeybindingsScreen : CinnamonScreen(Text.literal("Keybindings").setStyle(St
         val nameColor = if (isListeningToThis) CinnamonTheme.titleColor else CinnamonTheme.primaryTextColor
         context.drawText(
             textRenderer,
-            Text.literal(entry.displayName).setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont())),
+            StyledTextCache.get(entry.displayName),
             x + 12,
             y + 8,
             nameColor,
@@ -164,14 +166,14 @@ class KeybindingsScreen : CinnamonScreen(Text.literal("Keybindings").setStyle(St
         val descColor = if (isListeningToThis) CinnamonTheme.titleColor else CinnamonTheme.secondaryTextColor
         context.drawText(
             textRenderer,
-            Text.literal(entry.description).setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont())),
+            StyledTextCache.get(entry.description),
             x + 12,
             y + 22,
             descColor,
             CinnamonTheme.enableTextShadow
         )
 
-        val keyName = entry.keyBinding.boundKeyLocalizedText.string
+        val keyName = KeybindingManager.describe(entry.name)
         val keyWidth = textRenderer.getWidth(keyName)
         val keyButtonWidth = maxOf(keyWidth + 20, 60)
         val keyButtonX = x + width - keyButtonWidth - 10
@@ -189,7 +191,7 @@ class KeybindingsScreen : CinnamonScreen(Text.literal("Keybindings").setStyle(St
         val keyTextColor = if (isListeningToThis) CinnamonTheme.titleColor else CinnamonTheme.primaryTextColor
         context.drawText(
             textRenderer,
-            Text.literal(keyName).setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont())),
+            StyledTextCache.get(keyName),
             keyButtonX + (keyButtonWidth - keyWidth) / 2,
             keyButtonY + 8,
             keyTextColor,
@@ -213,23 +215,27 @@ class KeybindingsScreen : CinnamonScreen(Text.literal("Keybindings").setStyle(St
     }
 
     private fun drawRoundedRect(context: DrawContext, x: Int, y: Int, width: Int, height: Int, color: Int) {
-        context.fill(x + 2, y, x + width - 2, y + height, color)
-        context.fill(x, y + 2, x + width, y + height - 2, color)
-        context.fill(x + 1, y + 1, x + 2, y + 2, color)
-        context.fill(x + width - 2, y + 1, x + width - 1, y + 2, color)
-        context.fill(x + 1, y + height - 2, x + 2, y + height - 1, color)
-        context.fill(x + width - 2, y + height - 2, x + width - 1, y + height - 1, color)
+        QuadBatch.draw(context) {
+            QuadBatch.fill(x + 2, y, x + width - 2, y + height, color)
+            QuadBatch.fill(x, y + 2, x + width, y + height - 2, color)
+            QuadBatch.fill(x + 1, y + 1, x + 2, y + 2, color)
+            QuadBatch.fill(x + width - 2, y + 1, x + width - 1, y + 2, color)
+            QuadBatch.fill(x + 1, y + height - 2, x + 2, y + height - 1, color)
+            QuadBatch.fill(x + width - 2, y + height - 2, x + width - 1, y + height - 1, color)
+        }
     }
 
     private fun drawRoundedBorder(context: DrawContext, x: Int, y: Int, width: Int, height: Int, color: Int) {
-        context.fill(x + 2, y, x + width - 2, y + 1, color)
-        context.fill(x + 2, y + height - 1, x + width - 2, y + height, color)
-        context.fill(x, y + 2, x + 1, y + height - 2, color)
-        context.fill(x + width - 1, y + 2, x + width, y + height - 2, color)
-        context.fill(x + 1, y + 1, x + 2, y + 2, color)
-        context.fill(x + width - 2, y + 1, x + width - 1, y + 2, color)
-        context.fill(x + 1, y + height - 2, x + 2, y + height - 1, color)
-        context.fill(x + width - 2, y + height - 2, x + width - 1, y + height - 1, color)
+        QuadBatch.draw(context) {
+            QuadBatch.fill(x + 2, y, x + width - 2, y + 1, color)
+            QuadBatch.fill(x + 2, y + height - 1, x + width - 2, y + height, color)
+            QuadBatch.fill(x, y + 2, x + 1, y + height - 2, color)
+            QuadBatch.fill(x + width - 1, y + 2, x + width, y + height - 2, color)
+            QuadBatch.fill(x + 1, y + 1, x + 2, y + 2, color)
+            QuadBatch.fill(x + width - 2, y + 1, x + width - 1, y + 2, color)
+            QuadBatch.fill(x + 1, y + height - 2, x + 2, y + height - 1, color)
+            QuadBatch.fill(x + width - 2, y + height - 2, x + width - 1, y + height - 1, color)
+        }
     }
 
     private fun getKeybindingEntries(): List<KeybindingEntry> {
@@ -262,7 +268,11 @@ class KeybindingsScreen : CinnamonScreen(Text.literal("Keybindings").setStyle(St
 
     private fun hasConflict(entry: KeybindingEntry): Boolean {
         val entries = getKeybindingEntries()
-        return entries.count { it.currentKey == entry.currentKey && it.currentKey != GLFW.GLFW_KEY_UNKNOWN } > 1
+        val modifiers = KeybindingManager.getModifiers(entry.name)
+        return entries.count {
+            it.currentKey == entry.currentKey && it.currentKey != GLFW.GLFW_KEY_UNKNOWN &&
+                KeybindingManager.getModifiers(it.name) == modifiers
+        } > 1
     }
 
     private fun getKeybindingListHeight(): Int {
@@ -357,8 +367,10 @@ class KeybindingsScreen : CinnamonScreen(Text.literal("Keybindings").setStyle(St
 
     override fun keyPressed(keyCode: Int, scanCode: Int, modifiers: Int): Boolean {
         if (isListening && selectedKeybinding != null) {
+            // A modifier on its own may be the start of a combo; it is bound alone on release.
+            if (isModifierKey(keyCode)) return true
             val newKey = if (keyCode == GLFW.GLFW_KEY_ESCAPE) GLFW.GLFW_KEY_UNKNOWN else keyCode
-            KeybindingManager.updateKeybinding(selectedKeybinding!!, newKey)
+            KeybindingManager.updateKeybinding(selectedKeybinding!!, newKey, modifiers)
             isListening = false
             selectedKeybinding = null
             return true
@@ -366,4 +378,23 @@ class KeybindingsScreen : CinnamonScreen(Text.literal("Keybindings").setStyle(St
 
         return super.keyPressed(keyCode, scanCode, modifiers)
     }
+
+    override fun keyReleased(keyCode: Int, scanCode: Int, modifiers: Int): Boolean {
+        if (isListening && selectedKeybinding != null && isModifierKey(keyCode)) {
+            KeybindingManager.updateKeybinding(selectedKeybinding!!, keyCode)
+            isListening = false
+            selectedKeybinding = null
+            return true
+        }
+
+        return super.keyReleased(keyCode, scanCode, modifiers)
+    }
+
+    private fun isModifierKey(keyCode: Int): Boolean = when (keyCode) {
+        GLFW.GLFW_KEY_LEFT_CONTROL, GLFW.GLFW_KEY_RIGHT_CONTROL,
+        GLFW.GLFW_KEY_LEFT_SHIFT, GLFW.GLFW_KEY_RIGHT_SHIFT,
+        GLFW.GLFW_KEY_LEFT_ALT, GLFW.GLFW_KEY_RIGHT_ALT,
+        GLFW.GLFW_KEY_LEFT_SUPER, GLFW.GLFW_KEY_RIGHT_SUPER -> true
+        else -> false
+    }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package code.cinnamon.gui.screens
 
+import code.cinnamon.gui.utils.StyledTextCache
 import code.cinnamon.modules.all.AutoclickerModule
 import net.minecraft.client.gui.DrawContext
 import net.minecraft.text.Text
@@ -12,6 +13,7 @@ import net.minecraft.client.util.InputUtil
 import code.cinnamon.gui.CinnamonGuiManager
 import code.cinnamon.gui.components.CinnamonButton
 import code.cinnamon.modules.ModuleManager
+import code.cinnamon.modules.ModuleCategory
 import code.cinnamon.modules.Module
 import code.cinnamon.hud.HudManager
 import code.cinnamon.hud.HudElement
@@ -22,7 +24,9 @@ import kotlin.math.min
 
 import code.cinnamon.gui.screens.ColorPickerScreen
 import code.cinnamon.gui.screens.SettingsHelper
+import code.cinnamon.gui.utils.AnimationClock
 import code.cinnamon.gui.utils.GraphicsUtils
+import code.cinnamon.gui.utils.QuadBatch
 import code.cinnamon.modules.BooleanSetting
 import code.cinnamon.modules.ColorSetting
 import code.cinnamon.modules.DoubleSetting
@@ -36,7 +40,7 @@ import code.cinnamon.gui.components.CinnamonTextField
 
 class ModulesScreen : CinnamonScreen(Text.literal("Modules").setStyle(Style.EMPTY.withFont(CinnamonScreen.CINNA_FONT))) {
     private var selectedCategory = "All"
-    private val categories = listOf("All", "Combat", "Movement", "Render", "Player", "World")
+    private val categories = listOf("All") + ModuleCategory.entries.map { it.displayName }
     private var isCategoryDropdownOpen = false
     private var scrollOffset = 0.0
     private var targetScrollOffset = 0.0
@@ -126,11 +130,11 @@ class ModulesScreen : CinnamonScreen(Text.literal("Modules").setStyle(Style.EMPT
         addDrawableChild(searchBar)
 
 
-        lastAnimationTime = System.currentTimeMillis()
+        lastAnimationTime = AnimationClock.now()
     }
 
     override fun renderContent(context: DrawContext, scaledMouseX: Int, scaledMouseY: Int, delta: Float) {
-        val currentTime = System.currentTimeMillis()
+        val currentTime = AnimationClock.now()
         val deltaTime = (currentTime - lastAnimationTime) / 1000.0f
         lastAnimationTime = currentTime
 
@@ -231,7 +235,7 @@ class ModulesScreen : CinnamonScreen(Text.literal("Modules").setStyle(Style.EMPT
 
         context.drawText(
             textRenderer,
-            Text.literal(element.getName()).setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont())),
+            StyledTextCache.get(element.getName()),
             x + 12,
             y + 8,
             if (element.isEnabled) CinnamonTheme.titleColor else CinnamonTheme.primaryTextColor,
@@ -240,7 +244,7 @@ class ModulesScreen : CinnamonScreen(Text.literal("Modules").setStyle(Style.EMPT
 
         context.drawText(
             textRenderer,
-            Text.literal(element.description).setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont())),
+            StyledTextCache.get(element.description),
             x + 12,
             y + 22,
             CinnamonTheme.secondaryTextColor,
@@ -262,7 +266,7 @@ class ModulesScreen : CinnamonScreen(Text.literal("Modules").setStyle(Style.EMPT
 
         context.drawText(
             textRenderer,
-            Text.literal(expandButtonText).setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont())),
+            StyledTextCache.get(expandButtonText),
             expandButtonX,
             y + 8,
             CinnamonTheme.primaryTextColor,
@@ -312,7 +316,7 @@ class ModulesScreen : CinnamonScreen(Text.literal("Modules").setStyle(Style.EMPT
 
         context.drawText(
             textRenderer,
-            Text.literal("Settings").setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont())),
+            StyledTextCache.get("Settings"),
             x, currentY, CinnamonTheme.titleColor, CinnamonTheme.enableTextShadow
         )
         currentY += 15
@@ -322,17 +326,17 @@ class ModulesScreen : CinnamonScreen(Text.literal("Modules").setStyle(Style.EMPT
         if (element is KeystrokesHudElement) {
             currentY = newY
             val keyPressedTextColorText = "Pressed Text: ${element.keypressedTextColor.toRGBHexString()}"
-            context.drawText(textRenderer, Text.literal(keyPressedTextColorText).setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont())), x, currentY, CinnamonTheme.primaryTextColor, CinnamonTheme.enableTextShadow)
+            context.drawText(textRenderer, StyledTextCache.get(keyPressedTextColorText), x, currentY, CinnamonTheme.primaryTextColor, CinnamonTheme.enableTextShadow)
             val setKeyPressedTextColorButtonText = "[Set]"
             val setKeyPressedTextColorButtonWidth = textRenderer.getWidth(setKeyPressedTextColorButtonText)
-            context.drawText(textRenderer, Text.literal(setKeyPressedTextColorButtonText).setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont())), x + width - setKeyPressedTextColorButtonWidth, currentY, CinnamonTheme.accentColor, false)
+            context.drawText(textRenderer, StyledTextCache.get(setKeyPressedTextColorButtonText), x + width - setKeyPressedTextColorButtonWidth, currentY, CinnamonTheme.accentColor, false)
             currentY += 14
 
             val keyPressedBgColorText = "Pressed Background: ${element.keypressedBackgroundColor.toRGBAHexString()}"
-            context.drawText(textRenderer, Text.literal(keyPressedBgColorText).setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont())), x, currentY, CinnamonTheme.primaryTextColor, CinnamonTheme.enableTextShadow)
+            context.drawText(textRenderer, StyledTextCache.get(keyPressedBgColorText), x, currentY, CinnamonTheme.primaryTextColor, CinnamonTheme.enableTextShadow)
             val setKeyPressedBgColorButtonText = "[Set]"
             val setKeyPressedBgColorButtonWidth = textRenderer.getWidth(setKeyPressedBgColorButtonText)
-            context.drawText(textRenderer, Text.literal(setKeyPressedBgColorButtonText).setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont())), x + width - setKeyPressedBgColorButtonWidth, currentY, CinnamonTheme.accentColor, false)
+            context.drawText(textRenderer, StyledTextCache.get(setKeyPressedBgColorButtonText), x + width - setKeyPressedBgColorButtonWidth, currentY, CinnamonTheme.accentColor, false)
             currentY += 14
         }
 
@@ -403,15 +407,14 @@ class ModulesScreen : CinnamonScreen(Text.literal("Modules").setStyle(Style.EMPT
     private fun drawCheckbox(context: DrawContext, x: Int, y: Int, text: String, checked: Boolean) {
         val checkboxSize = 10
         val checkboxBg = if (checked) CinnamonTheme.accentColor else CinnamonTheme.buttonBackground
-        context.fill(x, y, x + checkboxSize, y + checkboxSize, checkboxBg)
-        context.fill(x, y, x + checkboxSize, y + 1, CinnamonTheme.borderColor)
-        context.fill(x, y + checkboxSize - 1, x + checkboxSize, y + checkboxSize, CinnamonTheme.borderColor)
-        context.fill(x, y, x + 1, y + checkboxSize, CinnamonTheme.borderColor)
-        context.fill(x + checkboxSize - 1, y, x + checkboxSize, y + checkboxSize, CinnamonTheme.borderColor)
+        QuadBatch.draw(context) {
+            QuadBatch.fill(x, y, x + checkboxSize, y + checkboxSize, checkboxBg)
+            GraphicsUtils.drawRectBorder(context, x, y, checkboxSize, checkboxSize, CinnamonTheme.borderColor)
+        }
         if (checked) {
             context.drawText(
                 textRenderer,
-                Text.literal("x").setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont())),
+                StyledTextCache.get("x"),
                 x + 1,
                 y + 1,
                 CinnamonTheme.titleColor,
@@ -420,7 +423,7 @@ class ModulesScreen : CinnamonScreen(Text.literal("Modules").setStyle(Style.EMPT
         }
         context.drawText(
             textRenderer,
-            Text.literal(text).setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont())),
+            StyledTextCache.get(text),
             x + checkboxSize + 6,
             y + 1,
             CinnamonTheme.primaryTextColor,
@@ -442,7 +445,7 @@ class ModulesScreen : CinnamonScreen(Text.literal("Modules").setStyle(Style.EMPT
 
         context.drawText(
             textRenderer,
-            Text.literal(module.name).setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont())),
+            StyledTextCache.get(module.name),
             x + 12,
             y + 8,
             if (module.isEnabled) CinnamonTheme.titleColor else CinnamonTheme.primaryTextColor,
@@ -454,7 +457,7 @@ class ModulesScreen : CinnamonScreen(Text.literal("Modules").setStyle(Style.EMPT
             val expandButtonWidth = textRenderer.getWidth(expandButtonText)
             context.drawText(
                 textRenderer,
-                Text.literal(expandButtonText).setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont())),
+                StyledTextCache.get(expandButtonText),
                 x + width - expandButtonWidth - 12,
                 y + 8,
                 CinnamonTheme.primaryTextColor,
@@ -464,7 +467,7 @@ class ModulesScreen : CinnamonScreen(Text.literal("Modules").setStyle(Style.EMPT
 
         context.drawText(
             textRenderer,
-            Text.literal(module.description).setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont())),
+            StyledTextCache.get(module.description),
             x + 12,
             y + 22,
             CinnamonTheme.secondaryTextColor,
@@ -524,7 +527,7 @@ class ModulesScreen : CinnamonScreen(Text.literal("Modules").setStyle(Style.EMPT
         } else {
             context.drawText(
                 textRenderer,
-                Text.literal("No settings available").setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont())),
+                StyledTextCache.get("No settings available"),
                 x,
                 y,
                 CinnamonTheme.secondaryTextColor,
@@ -536,15 +539,14 @@ class ModulesScreen : CinnamonScreen(Text.literal("Modules").setStyle(Style.EMPT
     private fun drawSettingButton(context: DrawContext, x: Int, y: Int, width: Int, height: Int, text: String, pressed: Boolean) {
         val bgColor = if (pressed) CinnamonTheme.accentColor else CinnamonTheme.buttonBackground
         val textColor = if (pressed) CinnamonTheme.titleColor else CinnamonTheme.primaryTextColor
-        context.fill(x, y, x + width, y + height, bgColor)
-        context.fill(x, y, x + width, y + 1, CinnamonTheme.borderColor)
-        context.fill(x, y + height - 1, x + width, y + height, CinnamonTheme.borderColor)
-        context.fill(x, y, x + 1, y + height, CinnamonTheme.borderColor)
-        context.fill(x + width - 1, y, x + width, y + height, CinnamonTheme.borderColor)
+        QuadBatch.draw(context) {
+            QuadBatch.fill(x, y, x + width, y + height, bgColor)
+            GraphicsUtils.drawRectBorder(context, x, y, width, height, CinnamonTheme.borderColor)
+        }
         val textWidth = textRenderer.getWidth(text)
         context.drawText(
             textRenderer,
-            Text.literal(text).setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont())),
+            StyledTextCache.get(text),
             x + (width - textWidth) / 2,
             y + 2,
             textColor,
@@ -559,7 +561,6 @@ class ModulesScreen : CinnamonScreen(Text.literal("Modules").setStyle(Style.EMPT
         val onColor = if (isHovered) CinnamonTheme.accentColorHover else CinnamonTheme.accentColor
 
         val switchBg = GraphicsUtils.interpolateColor(offColor, onColor, progress)
-        GraphicsUtils.drawFilledRoundedRect(context, x.toFloat(), y.toFloat(), width.toFloat(), height.toFloat(), 4f, switchBg)
 
         val knobSize = height - 4
         val startX = x + 2
@@ -567,7 +568,10 @@ class ModulesScreen : CinnamonScreen(Text.literal("Modules").setStyle(Style.EMPT
         val knobX = startX + (endX - startX) * progress
 
         val knobY = y + 2
-        GraphicsUtils.drawFilledRoundedRect(context, knobX, knobY.toFloat(), knobSize.toFloat(), knobSize.toFloat(), 4f, CinnamonTheme.titleColor)
+        QuadBatch.draw(context) {
+            GraphicsUtils.drawFilledRoundedRect(context, x.toFloat(), y.toFloat(), width.toFloat(), height.toFloat(), 4f, switchBg)
+            GraphicsUtils.drawFilledRoundedRect(context, knobX, knobY.toFloat(), knobSize.toFloat(), knobSize.toFloat(), 4f, CinnamonTheme.titleColor)
+        }
     }
 
 
@@ -577,7 +581,7 @@ class ModulesScreen : CinnamonScreen(Text.literal("Modules").setStyle(Style.EMPT
         if (selectedCategory == "All") {
             items.addAll(allModules)
         } else {
-            items.addAll(allModules.filter { module -> getModuleCategory(module.name) == selectedCategory })
+            items.addAll(allModules.filter { module -> module.category.displayName == selectedCategory })
         }
         if (selectedCategory == "All" || selectedCategory == "Render") {
             items.addAll(HudManager.getElements())
@@ -598,24 +602,9 @@ class ModulesScreen : CinnamonScreen(Text.literal("Modules").setStyle(Style.EMPT
         }
     }
 
-    private fun getModuleCategory(moduleName: String): String {
-        return when (moduleName.lowercase()) {
-            "autoclicker" -> "Combat"
-            "speed", "flight", "nofall" -> "Movement"
-            else -> "Player"
-        }
-    }
-
     private fun getModuleKeybind(moduleName: String): String {
-        val internalKeybindingName = "cinnamon.toggle_${moduleName.lowercase()}"
-        val keyBinding = KeybindingManager.getKeybinding(internalKeybindingName)
-        if (keyBinding != null) {
-            val boundKey = KeyBindingHelper.getBoundKeyOf(keyBinding)
-            if (boundKey != InputUtil.UNKNOWN_KEY) {
-                return boundKey.localizedText.string
-            }
-        }
-        return "None"
+        val keybinding = ModuleManager.getModule(moduleName)?.keybinding ?: return "None"
+        return KeybindingManager.describe(keybinding)
     }
 
     private fun isModuleEnabled(name: String): Boolean {
@@ -857,8 +846,9 @@ class ModulesScreen : CinnamonScreen(Text.literal("Modules").setStyle(Style.EMPT
         GraphicsUtils.drawFilledRoundedRect(context, x.toFloat(), y.toFloat(), width.toFloat(), height.toFloat(), 4f, bgColor)
         GraphicsUtils.drawRoundedRectBorder(context, x.toFloat(), y.toFloat(), width.toFloat(), height.toFloat(), 4f, CinnamonTheme.borderColor)
 
-        val buttonText = Text.literal(selectedCategory + " ▾").setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont()))
-        val textWidth = textRenderer.getWidth(buttonText)
+        val buttonLabel = selectedCategory + " ▾"
+        val buttonText = StyledTextCache.get(buttonLabel)
+        val textWidth = StyledTextCache.width(buttonLabel)
         context.drawText(
             textRenderer,
             buttonText,
@@ -883,8 +873,8 @@ class ModulesScreen : CinnamonScreen(Text.literal("Modules").setStyle(Style.EMPT
                 if (isItemHovered) {
                     context.fill(x, itemY, x + width, itemY + height, GraphicsUtils.withAlpha(CinnamonTheme.buttonBackgroundHover, alpha))
                 }
-                val categoryText = Text.literal(category).setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont()))
-                val categoryTextWidth = textRenderer.getWidth(categoryText)
+                val categoryText = StyledTextCache.get(category)
+                val categoryTextWidth = StyledTextCache.width(category)
                 context.drawText(
                     textRenderer,
                     categoryText,
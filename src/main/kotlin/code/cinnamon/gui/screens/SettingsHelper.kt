@@ -1,5 +1,6 @@
 package code.cinnamon.gui.screens
 
+import code.cinnamon.gui.utils.StyledTextCache
 import code.cinnamon.gui.components.CinnamonSlider
 import code.cinnamon.gui.components.CinnamonTextField
 import code.cinnamon.gui.theme.CinnamonTheme
@@ -15,6 +16,9 @@ import net.minecraft.text.Text
 import net.minecraft.text.Style
 
 object SettingsHelper {
+    // Stamp each double setting's slider and text field were last synced at.
+    private val syncedStamps = java.util.WeakHashMap<Setting<*>, Long>()
+
     fun renderSettings(
         context: DrawContext,
         x: Int,
@@ -32,18 +36,19 @@ object SettingsHelper {
         for (setting in settings) {
             when (setting) {
                 is LookAtHudSetting -> {
-                    renderCheckbox(context, x, currentY, setting.name, setting.value)
+                    renderCheckbox(context, x, currentY, setting.name, setting.booleanValue)
                     currentY += 14
                 }
                 is BooleanSetting -> {
-                    renderCheckbox(context, x, currentY, setting.name, setting.value)
+                    renderCheckbox(context, x, currentY, setting.name, setting.booleanValue)
                     currentY += 14
                 }
                 is DoubleSetting -> {
                     val slider = sliders.getOrPut(setting) {
-                        CinnamonSlider(x, currentY + 12, width - 60, 16, setting.value, setting.min, setting.max, setting.step) {
+                        CinnamonSlider(x, currentY + 12, width - 60, 16, setting.doubleValue, setting.min, setting.max, setting.step) {
                             setting.value = it
                             textFields[setting]?.text = "%.2f".format(it)
+                            syncedStamps[setting] = setting.stamp
                         }
                     }
                     slider.setPosition(x, currentY + 12)
@@ -51,22 +56,29 @@ object SettingsHelper {
 
                     val textField = textFields.getOrPut(setting) {
                         CinnamonTextField(mc.textRenderer, x + width - 50, currentY, 50, 16).apply {
-                            text = "%.2f".format(setting.value)
+                            text = "%.2f".format(setting.doubleValue)
                             setChangedListener {
                                 it.toDoubleOrNull()?.let { newV ->
                                     setting.value = newV
                                     slider.setValue(newV)
+                                    syncedStamps[setting] = setting.stamp
                                 }
                             }
                         }
                     }
+                    // Pick up changes made elsewhere (config load, reset) without fighting the widgets' own edits.
+                    if (syncedStamps[setting] != setting.stamp) {
+                        slider.setValue(setting.doubleValue)
+                        if (!textField.isFocused) textField.text = "%.2f".format(setting.doubleValue)
+                        syncedStamps[setting] = setting.stamp
+                    }
                     textField.setPosition(x + width - 50, currentY)
                     textField.render(context, scaledMouseX, scaledMouseY, delta)
 
                     val text = "${setting.name}"
                     context.drawText(
                         mc.textRenderer,
-                        Text.literal(text).setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont())),
+                        StyledTextCache.get(text),
                         x,
                         currentY,
                         CinnamonTheme.primaryTextColor,
@@ -75,10 +87,10 @@ object SettingsHelper {
                     currentY += 40
                 }
                 is ColorSetting -> {
-                    val text = "${setting.name}: #${String.format("%08X", setting.value)}"
+                    val text = "${setting.name}: #${String.format("%08X", setting.colorValue)}"
                     context.drawText(
                         mc.textRenderer,
-                        Text.literal(text).setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont())),
+                        StyledTextCache.get(text),
                         x,
                         currentY,
                         CinnamonTheme.primaryTextColor,
@@ -88,7 +100,7 @@ object SettingsHelper {
                     val buttonWidth = mc.textRenderer.getWidth(buttonText)
                     context.drawText(
                         mc.textRenderer,
-                        Text.literal(buttonText).setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont())),
+                        StyledTextCache.get(buttonText),
                         x + width - buttonWidth,
                         currentY,
                         CinnamonTheme.accentColor,
@@ -122,7 +134,7 @@ object SettingsHelper {
                             if (isSelected) {
                                 context.drawText(
                                     mc.textRenderer,
-                                    Text.literal("x").setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont())),
+                                    StyledTextCache.get("x"),
                                     checkboxX + 1,
                                     checkboxY + 1,
                                     CinnamonTheme.titleColor,
@@ -133,7 +145,7 @@ object SettingsHelper {
                             val textY = currentY + (itemBoxHeight - mc.textRenderer.fontHeight) / 2
                             context.drawText(
                                 mc.textRenderer,
-                                Text.literal(colorEnumEntry.friendlyName).setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont())),
+                                StyledTextCache.get(colorEnumEntry.friendlyName),
                                 textX,
                                 textY,
                                 CinnamonTheme.primaryTextColor,
@@ -147,7 +159,7 @@ object SettingsHelper {
                         val text = "${setting.name}: ${setting.value}"
                         context.drawText(
                             mc.textRenderer,
-                            Text.literal(text).setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont())),
+                            StyledTextCache.get(text),
                             x,
                             currentY,
                             CinnamonTheme.primaryTextColor,
@@ -157,7 +169,7 @@ object SettingsHelper {
                         val buttonWidth = mc.textRenderer.getWidth(buttonText)
                         context.drawText(
                             mc.textRenderer,
-                            Text.literal(buttonText).setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont())),
+                            StyledTextCache.get(buttonText),
                             x + width - buttonWidth,
                             currentY,
                             CinnamonTheme.accentColor,
@@ -288,7 +300,7 @@ object SettingsHelper {
         if (checked) {
             context.drawText(
                 mc.textRenderer,
-                Text.literal("x").setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont())),
+                StyledTextCache.get("x"),
                 x + 1,
                 y + 1,
                 CinnamonTheme.titleColor,
@@ -297,7 +309,7 @@ object SettingsHelper {
         }
         context.drawText(
             mc.textRenderer,
-            Text.literal(text).setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont())),
+            StyledTextCache.get(text),
             x + checkboxSize + 6,
             y + 1,
             CinnamonTheme.primaryTextColor,
@@ -313,7 +325,7 @@ object SettingsHelper {
         val textWidth = mc.textRenderer.getWidth(text)
         context.drawText(
             mc.textRenderer,
-            Text.literal(text).setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont())),
+            StyledTextCache.get(text),
             x + (width - textWidth) / 2,
             y + 2,
             textColor,
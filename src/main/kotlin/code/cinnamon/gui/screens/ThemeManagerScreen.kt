@@ -1,5 +1,6 @@
 package code.cinnamon.gui.screens
 
+import code.cinnamon.gui.utils.StyledTextCache
 import net.minecraft.client.gui.DrawContext
 import net.minecraft.text.Text
 import net.minecraft.text.Style
@@ -8,6 +9,7 @@ import code.cinnamon.gui.CinnamonGuiManager
 import code.cinnamon.gui.components.CinnamonButton
 import code.cinnamon.gui.theme.CinnamonTheme
 import code.cinnamon.gui.theme.ThemeConfigManager
+import code.cinnamon.gui.utils.AnimationClock
 import code.cinnamon.gui.utils.GraphicsUtils
 import kotlin.math.max
 
@@ -102,7 +104,7 @@ class ThemeManagerScreen : CinnamonScreen(Text.literal("Theme Manager").setStyle
             backAndResetButtonY,
             100,
             CinnamonTheme.BUTTON_HEIGHT,
-            Text.literal("Back").setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont())),
+            StyledTextCache.get("Back"),
             { _, _ -> CinnamonGuiManager.openModulesScreen() }
         )
         addButton(backButton!!)
@@ -112,23 +114,23 @@ class ThemeManagerScreen : CinnamonScreen(Text.literal("Theme Manager").setStyle
             backAndResetButtonY,
             100,
             CinnamonTheme.BUTTON_HEIGHT,
-            Text.literal("Reset").setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont())),
+            StyledTextCache.get("Reset"),
             { _, _ ->
                 this.resetToDefaults()
                 initializeComponents()
             }
         )
         addButton(resetButton!!)
-        lastAnimationTime = System.currentTimeMillis()
+        lastAnimationTime = AnimationClock.now()
     }
 
     private fun getTextShadowButtonText(): Text {
         val status = if (CinnamonTheme.enableTextShadow) "Enabled" else "Disabled"
-        return Text.literal("Text Shadow: $status").setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont()))
+        return StyledTextCache.get("Text Shadow: $status")
     }
 
     override fun renderContent(context: DrawContext, scaledMouseX: Int, scaledMouseY: Int, delta: Float) {
-        val currentTime = System.currentTimeMillis()
+        val currentTime = AnimationClock.now()
         val deltaTime = (currentTime - lastAnimationTime) / 1000.0f
         lastAnimationTime = currentTime
 
@@ -179,7 +181,7 @@ class ThemeManagerScreen : CinnamonScreen(Text.literal("Theme Manager").setStyle
 
         context.drawText(
             textRenderer,
-            Text.literal(colorType.displayName).setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont())),
+            StyledTextCache.get(colorType.displayName),
             x + 20 + colorSquareSize,
             y + (height - textRenderer.fontHeight) / 2,
             CinnamonTheme.primaryTextColor,
@@ -190,7 +192,7 @@ class ThemeManagerScreen : CinnamonScreen(Text.literal("Theme Manager").setStyle
         val hexWidth = textRenderer.getWidth(hexValue)
         context.drawText(
             textRenderer,
-            Text.literal(hexValue).setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont())),
+            StyledTextCache.get(hexValue),
             x + width - hexWidth - 10,
             y + (height - textRenderer.fontHeight) / 2,
             CinnamonTheme.secondaryTextColor,
@@ -270,7 +272,7 @@ class ThemeManagerScreen : CinnamonScreen(Text.literal("Theme Manager").setStyle
 
     override fun renderFooter(context: DrawContext, scaledMouseX: Int, scaledMouseY: Int, delta: Float) {
         super.renderFooter(context, scaledMouseX, scaledMouseY, delta)
-        val statusText = Text.literal("Theme Editor").setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont()))
+        val statusText = StyledTextCache.get("Theme Editor")
         context.drawText(
             textRenderer,
             statusText,
@@ -279,7 +281,7 @@ class ThemeManagerScreen : CinnamonScreen(Text.literal("Theme Manager").setStyle
             CinnamonTheme.infoColor,
             CinnamonTheme.enableTextShadow
         )
-        val colorCountText = Text.literal("${ColorType.values().size} Colors Available").setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont()))
+        val colorCountText = StyledTextCache.get("${ColorType.values().size} Colors Available")
         val colorCountWidth = textRenderer.getWidth(colorCountText)
         context.drawText(
             textRenderer,
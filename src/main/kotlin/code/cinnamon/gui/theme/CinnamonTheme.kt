@@ -179,9 +179,11 @@ object CinnamonTheme {
     const val CARD_PADDING = 16
     const val COMPONENT_SPACING = 8
 
+    private val MINECRAFT_FONT: net.minecraft.util.Identifier = net.minecraft.util.Identifier.of("minecraft", "default")
+
     fun getCurrentFont(): net.minecraft.util.Identifier {
         return if (useMinecraftFont) {
-            net.minecraft.util.Identifier.of("minecraft", "default")
+            MINECRAFT_FONT
         } else {
             code.cinnamon.gui.CinnamonScreen.CINNA_FONT
         }
@@ -1,8 +1,8 @@
 package code.cinnamon.gui.theme
 
+import code.cinnamon.config.ConfigStore
 import kotlinx.serialization.Serializable
 import kotlinx.serialization.json.Json
-import kotlinx.serialization.encodeToString
 import kotlinx.serialization.decodeFromString
 import java.io.File
 import java.nio.file.Paths
@@ -24,15 +24,11 @@ data class ThemeConfig(
 )
 
 object ThemeConfigManager {
-    private val json = Json { prettyPrint = true; ignoreUnknownKeys = true }
-    private val configDir = Paths.get("config", "cinnamon").toFile()
-    private val themeFile = File(configDir, "theme.json")
+    private const val THEME_KEY = "current"
 
-    init {
-        if (!configDir.exists()) {
-            configDir.mkdirs()
-        }
-    }
+    private val json = Json { prettyPrint = true; ignoreUnknownKeys = true }
+    private val legacyThemeFile = File(Paths.get("config", "cinnamon").toFile(), "theme.json")
+    private val store = ConfigStore.namespace("theme", ThemeConfig.serializer())
 
     fun saveTheme() {
         try {
@@ -58,9 +54,7 @@ object ThemeConfigManager {
             println("[ThemeConfigManager]   Button Outline Color: ${String.format("#%08X", config.buttonOutlineColor)}")
             println("[ThemeConfigManager]   Button Outline Hover Color: ${String.format("#%08X", config.buttonOutlineHoverColor)}")
 
-            val jsonString = json.encodeToString(config)
-            themeFile.writeText(jsonString)
-            println("[ThemeConfigManager] Theme saved successfully to ${themeFile.absolutePath}")
+            store.put(THEME_KEY, config)
         } catch (e: Exception) {
             println("[ThemeConfigManager] Failed to save theme: ${e.message}")
             e.printStackTrace()
@@ -68,16 +62,18 @@ object ThemeConfigManager {
     }
 
     fun loadTheme() {
+        store.importLegacy(legacyThemeFile) { legacyJson ->
+            store.put(THEME_KEY, json.decodeFromString<ThemeConfig>(legacyJson))
+        }
+
         try {
-            if (!themeFile.exists()) {
-                println("[ThemeConfigManager] Theme file does not exist. Loading default theme values.")
+            val config = store.get(THEME_KEY)
+            if (config == null) {
+                println("[ThemeConfigManager] No saved theme. Loading default theme values.")
                 CinnamonTheme.resetToDefaults()
                 return
             }
 
-            val jsonString = themeFile.readText()
-            val config = json.decodeFromString<ThemeConfig>(jsonString)
-
             CinnamonTheme.coreBackgroundPrimary = config.coreBackgroundPrimary
             CinnamonTheme.coreAccentPrimary = config.coreAccentPrimary
             CinnamonTheme.coreTextPrimary = config.coreTextPrimary
@@ -92,7 +88,7 @@ object ThemeConfigManager {
             CinnamonTheme.useMinecraftFont = config.useMinecraftFont
 
             CinnamonTheme.updateDependentColors()
-            println("[ThemeConfigManager] Theme loaded successfully from ${themeFile.absolutePath}")
+            println("[ThemeConfigManager] Theme loaded successfully")
 
         } catch (e: Exception) {
             println("[ThemeConfigManager] Failed to load theme: ${e.message}")
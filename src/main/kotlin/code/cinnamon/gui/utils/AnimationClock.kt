@@ -0,0 +1,27 @@
+package code.cinnamon.gui.utils
+
+/**
+ * Time source for the screen animations. Follows the wall clock unless [pin] is called, in which
+ * case time only moves through [advance], so scripted renders (see [ScreenDrawHarness]) see the
+ * same animation state on every run.
+ */
+object AnimationClock {
+    @Volatile private var pinnedTime = -1L
+
+    fun now(): Long {
+        val pinned = pinnedTime
+        return if (pinned >= 0) pinned else System.currentTimeMillis()
+    }
+
+    fun pin(time: Long) {
+        pinnedTime = time
+    }
+
+    fun advance(millis: Long) {
+        if (pinnedTime >= 0) pinnedTime += millis
+    }
+
+    fun unpin() {
+        pinnedTime = -1L
+    }
+}
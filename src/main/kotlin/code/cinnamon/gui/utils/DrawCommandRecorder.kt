@@ -0,0 +1,75 @@
+package code.cinnamon.gui.utils
+
+import net.minecraft.client.gui.ScreenRect
+import net.minecraft.client.gui.render.state.SimpleGuiElementRenderState
+import net.minecraft.client.texture.TextureSetup
+
+/**
+ * Captures the elements submitted to a GuiRenderState while [recording] is set, as a compact
+ * (kind, x, y, width, height) int list. Fed by the GuiRenderState mixin, so anything drawn through
+ * DrawContext is seen, no matter which screen or HUD element issued it.
+ */
+object DrawCommandRecorder {
+    const val FILL = 0
+    const val TEXTURE = 1
+    const val TEXT = 2
+    const val ITEM = 3
+    const val SCISSOR = 4
+    val KIND_NAMES = arrayOf("fills", "textures", "text", "items", "scissors")
+
+    private const val STRIDE = 5
+
+    @JvmField var recording = false
+
+    private var commands = IntArray(STRIDE * 512)
+    private var size = 0
+    private val counts = IntArray(KIND_NAMES.size)
+    private var lastScissor: ScreenRect? = null
+
+    fun begin() {
+        size = 0
+        counts.fill(0)
+        lastScissor = null
+        recording = true
+    }
+
+    /** Stops recording and returns the per-kind counts of the frame. */
+    fun end(): IntArray {
+        recording = false
+        return counts.copyOf()
+    }
+
+    fun commandCount(): Int = size
+
+    fun kindAt(index: Int): Int = commands[index * STRIDE]
+
+    fun boundsAt(index: Int): String {
+        val base = index * STRIDE
+        return "${commands[base + 1]},${commands[base + 2]} ${commands[base + 3]}x${commands[base + 4]}"
+    }
+
+    fun recordSimple(element: SimpleGuiElementRenderState) {
+        val scissor = element.scissorArea()
+        if (scissor != lastScissor) {
+            lastScissor = scissor
+            if (scissor != null) add(SCISSOR, scissor)
+        }
+        add(if (element.textureSetup() == TextureSetup.empty()) FILL else TEXTURE, element.bounds())
+    }
+
+    fun recordText() = add(TEXT, null)
+
+    fun recordItem() = add(ITEM, null)
+
+    private fun add(kind: Int, bounds: ScreenRect?) {
+        if ((size + 1) * STRIDE > commands.size) commands = commands.copyOf(commands.size * 2)
+        val base = size * STRIDE
+        commands[base] = kind
+        commands[base + 1] = bounds?.left() ?: 0
+        commands[base + 2] = bounds?.top() ?: 0
+        commands[base + 3] = bounds?.width() ?: 0
+        commands[base + 4] = bounds?.height() ?: 0
+        size++
+        counts[kind]++
+    }
+}
@@ -0,0 +1,120 @@
+package code.cinnamon.gui.utils
+
+/**
+ * Formats a decimal readout with a fixed number of fractional digits into a reusable char buffer.
+ * Output always uses '.' as the separator regardless of locale, and [string] is only rebuilt
+ * when the rounded value, prefix or suffix actually changes.
+ */
+class FixedPointFormatter(decimals: Int) {
+    var decimals: Int = decimals.coerceIn(0, MAX_DECIMALS)
+        set(value) {
+            val clamped = value.coerceIn(0, MAX_DECIMALS)
+            if (field != clamped) {
+                field = clamped
+                valid = false
+            }
+        }
+
+    var string: String = ""
+        private set
+
+    private var buffer = CharArray(32)
+    private var valid = false
+    private var lastScaled = 0L
+    private var lastPrefix = ""
+    private var lastSuffix = ""
+
+    /** Returns true when [string] changed. */
+    fun update(value: Double, prefix: String = "", suffix: String = ""): Boolean {
+        val scaled = scale(value)
+        if (valid && scaled == lastScaled && prefix == lastPrefix && suffix == lastSuffix) return false
+
+        valid = true
+        lastScaled = scaled
+        lastPrefix = prefix
+        lastSuffix = suffix
+        string = write(scaled, prefix, suffix)
+        return true
+    }
+
+    private fun scale(value: Double): Long {
+        if (value.isNaN()) return 0L
+        val factor = POWERS_OF_TEN[decimals]
+        val magnitude = Math.round(kotlin.math.abs(value) * factor)
+        return if (value < 0 && magnitude != 0L) -magnitude else magnitude
+    }
+
+    private fun write(scaled: Long, prefix: String, suffix: String): String {
+        val needed = prefix.length + suffix.length + MAX_LONG_DIGITS + 2
+        if (buffer.size < needed) buffer = CharArray(needed)
+
+        var pos = 0
+        prefix.toCharArray(buffer, pos)
+        pos += prefix.length
+
+        if (scaled < 0) buffer[pos++] = '-'
+        pos = writeFixed(buffer, pos, kotlin.math.abs(scaled), decimals)
+
+        suffix.toCharArray(buffer, pos)
+        pos += suffix.length
+        return String(buffer, 0, pos)
+    }
+
+    companion object {
+        private const val MAX_DECIMALS = 6
+        private const val MAX_LONG_DIGITS = 19
+        private val POWERS_OF_TEN = LongArray(MAX_DECIMALS + 1).also {
+            it[0] = 1L
+            for (i in 1 until it.size) it[i] = it[i - 1] * 10L
+        }
+
+        /** Writes [magnitude] / 10^[decimals] at [start] and returns the position after the last digit. */
+        internal fun writeFixed(buffer: CharArray, start: Int, magnitude: Long, decimals: Int): Int {
+            var digits = 1
+            var probe = magnitude / 10
+            while (probe > 0) {
+                digits++
+                probe /= 10
+            }
+            if (digits <= decimals) digits = decimals + 1
+
+            val length = if (decimals > 0) digits + 1 else digits
+            var pos = start + length - 1
+            var remaining = magnitude
+            for (i in 0 until digits) {
+                if (decimals > 0 && i == decimals) buffer[pos--] = '.'
+                buffer[pos--] = ('0' + (remaining % 10).toInt())
+                remaining /= 10
+            }
+            return start + length
+        }
+    }
+}
+
+/**
+ * Formats a millisecond duration as m:ss into a reusable char buffer,
+ * rebuilding [string] only when the displayed second changes.
+ */
+class ClockTimeFormatter {
+    var string: String = "0:00"
+        private set
+
+    private val buffer = CharArray(24)
+    private var lastSeconds = 0L
+
+    /** Returns true when [string] changed. */
+    fun update(timeMs: Long): Boolean {
+        val totalSeconds = (timeMs / 1000).coerceAtLeast(0L)
+        if (totalSeconds == lastSeconds) return false
+        lastSeconds = totalSeconds
+
+        val minutes = totalSeconds / 60
+        val seconds = (totalSeconds % 60).toInt()
+        var pos = FixedPointFormatter.writeFixed(buffer, 0, minutes, 0)
+        buffer[pos++] = ':'
+        buffer[pos++] = '0' + seconds / 10
+        buffer[pos++] = '0' + seconds % 10
+        string = String(buffer, 0, pos)
+        return true
+    }
+}
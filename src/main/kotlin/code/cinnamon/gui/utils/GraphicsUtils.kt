@@ -36,139 +36,154 @@ object GraphicsUtils {
         return (color and 0x00FFFFFF) or (newAlpha shl 24)
     }
 
-    enum class Corner { TOP_LEFT, TOP_RIGHT, BOTTOM_LEFT, BOTTOM_RIGHT }
-
-    private fun drawPixel(context: DrawContext, x: Int, y: Int, color: Int) {
-        context.fill(x, y, x + 1, y + 1, color)
-    }
-
-    private fun drawFilledSingleCorner(context: DrawContext, cornerX: Int, cornerY: Int, radius: Int, color: Int, type: Corner) {
-        if (radius <= 0) return
-        for (i in 0 until radius) {
-            for (j in 0 until radius) {
-                val dist = sqrt((i * i + j * j).toDouble())
-                if (dist <= radius - 0.5f) {
-                    val pixelX: Int
-                    val pixelY: Int
-                    when (type) {
-                        Corner.TOP_LEFT -> {
-                            pixelX = cornerX + radius - 1 - i
-                            pixelY = cornerY + radius - 1 - j
-                        }
-                        Corner.TOP_RIGHT -> {
-                            pixelX = cornerX + i
-                            pixelY = cornerY + radius - 1 - j
-                        }
-                        Corner.BOTTOM_LEFT -> {
-                            pixelX = cornerX + radius - 1 - i
-                            pixelY = cornerY + j
-                        }
-                        Corner.BOTTOM_RIGHT -> {
-                            pixelX = cornerX + i
-                            pixelY = cornerY + j
-                        }
+    private const val MAX_CACHED_RADIUS = 64
+
+    // Scanline spans for one quadrant of a rounded corner, measured in rows from the outer edge.
+    // Consecutive rows with identical spans are merged into runs so a corner costs a handful of fills.
+    private class CornerSpans(radius: Int) {
+        // Packed (firstRow, rowCount, inset) triples for rows that are not fully covered.
+        val fillRuns: IntArray
+        // First row (from the outer edge) whose fill span reaches the full width.
+        val solidFrom: Int
+        // Packed (firstRow, rowCount, outerInset, innerEnd) quads for the 1px outline arc.
+        val borderRuns: IntArray
+
+        init {
+            val fill = ArrayList<Int>()
+            val border = ArrayList<Int>()
+            var solid = radius
+
+            var lastInset = -1
+            var lastOuter = -1
+            var lastInner = -1
+            for (row in 0 until radius) {
+                val j = radius - 1 - row
+                var maxI = 0
+                var minBorderI = -1
+                for (i in 0 until radius) {
+                    val dist = sqrt((i * i + j * j).toDouble())
+                    if (dist <= radius - 0.5f) {
+                        maxI = i
+                        if (minBorderI < 0 && dist >= radius - 1.5f) minBorderI = i
                     }
-                    drawPixel(context, pixelX, pixelY, color)
                 }
-            }
-        }
-    }
 
-    private fun drawSingleCornerBorder(context: DrawContext, cornerX: Int, cornerY: Int, radius: Int, color: Int, type: Corner) {
-        if (radius <= 0) return
-        for (i in 0 until radius) {
-            for (j in 0 until radius) {
-                val dist = sqrt((i * i + j * j).toDouble())
-                if (dist >= radius - 1.5f && dist <= radius - 0.5f) {
-                    val pixelX: Int
-                    val pixelY: Int
-                    when (type) {
-                        Corner.TOP_LEFT -> {
-                            pixelX = cornerX + radius - 1 - i
-                            pixelY = cornerY + radius - 1 - j
-                        }
-                        Corner.TOP_RIGHT -> {
-                            pixelX = cornerX + i
-                            pixelY = cornerY + radius - 1 - j
-                        }
-                        Corner.BOTTOM_LEFT -> {
-                            pixelX = cornerX + radius - 1 - i
-                            pixelY = cornerY + j
-                        }
-                        Corner.BOTTOM_RIGHT -> {
-                            pixelX = cornerX + i
-                            pixelY = cornerY + j
-                        }
+                val inset = radius - 1 - maxI
+                if (inset == 0) {
+                    if (solid == radius) solid = row
+                } else if (inset == lastInset) {
+                    fill[fill.size - 2]++
+                } else {
+                    fill.add(row); fill.add(1); fill.add(inset)
+                }
+                lastInset = inset
+
+                if (minBorderI >= 0) {
+                    val innerEnd = radius - minBorderI
+                    if (inset == lastOuter && innerEnd == lastInner) {
+                        border[border.size - 3]++
+                    } else {
+                        border.add(row); border.add(1); border.add(inset); border.add(innerEnd)
                     }
-                    drawPixel(context, pixelX, pixelY, color)
+                    lastOuter = inset
+                    lastInner = innerEnd
+                } else {
+                    lastOuter = -1
+                    lastInner = -1
                 }
             }
-        }
-    }
 
-    fun drawFilledRoundedRect(context: DrawContext, xF: Float, yF: Float, widthF: Float, heightF: Float, radiusF: Float, color: Int) {
-        val x = xF.toInt()
-        val y = yF.toInt()
-        val width = widthF.toInt()
-        val height = heightF.toInt()
-        var r = radiusF.toInt()
-
-        if (width <= 0 || height <= 0) return
-        r = r.coerceAtMost(width / 2).coerceAtMost(height / 2).coerceAtLeast(0)
-
-        if (r == 0) {
-            context.fill(x, y, x + width, y + height, color)
-            return
+            fillRuns = fill.toIntArray()
+            solidFrom = solid
+            borderRuns = border.toIntArray()
         }
+    }
 
+    private val cornerSpanCache = arrayOfNulls<CornerSpans>(MAX_CACHED_RADIUS + 1)
 
-        context.fill(x + r, y + r, x + width - r, y + height - r, color)
-
+    private fun cornerSpans(radius: Int): CornerSpans {
+        if (radius > MAX_CACHED_RADIUS) return CornerSpans(radius)
+        return cornerSpanCache[radius] ?: CornerSpans(radius).also { cornerSpanCache[radius] = it }
+    }
 
-        context.fill(x + r, y, x + width - r, y + r, color)
+    private fun clampRadius(radius: Int, width: Int, height: Int): Int =
+        radius.coerceAtMost(width / 2).coerceAtMost(height / 2).coerceAtLeast(0)
 
+    fun drawFilledRoundedRect(context: DrawContext, xF: Float, yF: Float, widthF: Float, heightF: Float, radiusF: Float, color: Int) {
+        drawFilledRoundedRect(context, xF.toInt(), yF.toInt(), widthF.toInt(), heightF.toInt(), radiusF.toInt(), color)
+    }
 
-        context.fill(x + r, y + height - r, x + width - r, y + height, color)
+    fun drawFilledRoundedRect(context: DrawContext, x: Int, y: Int, width: Int, height: Int, radius: Int, color: Int) {
+        if (width <= 0 || height <= 0 || (color ushr 24) == 0) return
+        val r = clampRadius(radius, width, height)
 
+        QuadBatch.draw(context) {
+            if (r == 0) {
+                QuadBatch.fill(x, y, x + width, y + height, color)
+                return@draw
+            }
 
-        context.fill(x, y + r, x + r, y + height - r, color)
+            val spans = cornerSpans(r)
+            val runs = spans.fillRuns
+            var i = 0
+            while (i < runs.size) {
+                val row = runs[i]
+                val rows = runs[i + 1]
+                val inset = runs[i + 2]
+                QuadBatch.fill(x + inset, y + row, x + width - inset, y + row + rows, color)
+                QuadBatch.fill(x + inset, y + height - row - rows, x + width - inset, y + height - row, color)
+                i += 3
+            }
 
+            QuadBatch.fill(x, y + spans.solidFrom, x + width, y + height - spans.solidFrom, color)
+        }
+    }
 
-        context.fill(x + width - r, y + r, x + width, y + height - r, color)
+    fun drawRoundedRectBorder(context: DrawContext, xF: Float, yF: Float, widthF: Float, heightF: Float, radiusF: Float, color: Int) {
+        drawRoundedRectBorder(context, xF.toInt(), yF.toInt(), widthF.toInt(), heightF.toInt(), radiusF.toInt(), color)
+    }
 
+    fun drawRoundedRectBorder(context: DrawContext, x: Int, y: Int, width: Int, height: Int, radius: Int, color: Int) {
+        if (width <= 0 || height <= 0 || (color ushr 24) == 0) return
+        val r = clampRadius(radius, width, height)
+
+        QuadBatch.draw(context) {
+            if (r == 0) {
+                QuadBatch.fill(x, y, x + width, y + 1, color)
+                QuadBatch.fill(x, y + height - 1, x + width, y + height, color)
+                QuadBatch.fill(x, y + 1, x + 1, y + height - 1, color)
+                QuadBatch.fill(x + width - 1, y + 1, x + width, y + height - 1, color)
+                return@draw
+            }
 
-        drawFilledSingleCorner(context, x, y, r, color, Corner.TOP_LEFT)
-        drawFilledSingleCorner(context, x + width - r, y, r, color, Corner.TOP_RIGHT)
-        drawFilledSingleCorner(context, x, y + height - r, r, color, Corner.BOTTOM_LEFT)
-        drawFilledSingleCorner(context, x + width - r, y + height - r, r, color, Corner.BOTTOM_RIGHT)
+            QuadBatch.fill(x + r, y, x + width - r, y + 1, color)
+            QuadBatch.fill(x + r, y + height - 1, x + width - r, y + height, color)
+            QuadBatch.fill(x, y + r, x + 1, y + height - r, color)
+            QuadBatch.fill(x + width - 1, y + r, x + width, y + height - r, color)
+
+            val runs = cornerSpans(r).borderRuns
+            var i = 0
+            while (i < runs.size) {
+                val row = runs[i]
+                val rows = runs[i + 1]
+                val outer = runs[i + 2]
+                val inner = runs[i + 3]
+                QuadBatch.fill(x + outer, y + row, x + inner, y + row + rows, color)
+                QuadBatch.fill(x + width - inner, y + row, x + width - outer, y + row + rows, color)
+                QuadBatch.fill(x + outer, y + height - row - rows, x + inner, y + height - row, color)
+                QuadBatch.fill(x + width - inner, y + height - row - rows, x + width - outer, y + height - row, color)
+                i += 4
+            }
+        }
     }
 
-    fun drawRoundedRectBorder(context: DrawContext, xF: Float, yF: Float, widthF: Float, heightF: Float, radiusF: Float, color: Int) {
-        val x = xF.toInt()
-        val y = yF.toInt()
-        val width = widthF.toInt()
-        val height = heightF.toInt()
-        var radius = radiusF.toInt()
-
-        if (width <= 0 || height <= 0) return
-        radius = radius.coerceAtMost(width / 2).coerceAtMost(height / 2).coerceAtLeast(0)
-
-        if (radius == 0) {
-            context.fill(x, y, x + width, y + 1, color)
-            context.fill(x, y + height - 1, x + width, y + height, color)
-            context.fill(x, y + 1, x + 1, y + height - 1, color)
-            context.fill(x + width - 1, y + 1, x + width, y + height - 1, color)
-            return
+    /** Draws a 1px rectangle outline as one batched element. */
+    fun drawRectBorder(context: DrawContext, x: Int, y: Int, width: Int, height: Int, color: Int) {
+        QuadBatch.draw(context) {
+            QuadBatch.fill(x, y, x + width, y + 1, color)
+            QuadBatch.fill(x, y + height - 1, x + width, y + height, color)
+            QuadBatch.fill(x, y + 1, x + 1, y + height - 1, color)
+            QuadBatch.fill(x + width - 1, y + 1, x + width, y + height - 1, color)
         }
-
-        context.fill(x + radius, y, x + width - radius, y + 1, color)
-        context.fill(x + radius, y + height - 1, x + width - radius, y + height, color)
-        context.fill(x, y + radius, x + 1, y + height - radius, color)
-        context.fill(x + width - 1, y + radius, x + width, y + height - radius, color)
-
-        drawSingleCornerBorder(context, x, y, radius, color, Corner.TOP_LEFT)
-        drawSingleCornerBorder(context, x + width - radius, y, radius, color, Corner.TOP_RIGHT)
-        drawSingleCornerBorder(context, x, y + height - radius, radius, color, Corner.BOTTOM_LEFT)
-        drawSingleCornerBorder(context, x + width - radius, y + height - radius, radius, color, Corner.BOTTOM_RIGHT)
     }
 }
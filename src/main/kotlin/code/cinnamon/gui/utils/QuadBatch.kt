@@ -0,0 +1,124 @@
+package code.cinnamon.gui.utils
+
+import com.mojang.blaze3d.pipeline.RenderPipeline
+import net.minecraft.client.gl.RenderPipelines
+import net.minecraft.client.gui.DrawContext
+import net.minecraft.client.gui.ScreenRect
+import net.minecraft.client.gui.render.state.SimpleGuiElementRenderState
+import net.minecraft.client.render.VertexConsumer
+import net.minecraft.client.texture.TextureSetup
+import org.joml.Matrix3x2f
+
+/**
+ * Collects solid and vertical-gradient quads and submits them to the GUI render state as a single
+ * element, instead of one element (with its own copied pose) per `context.fill` call.
+ *
+ * Batches nest: only the outermost [end] submits. The pose and scissor in effect when the
+ * outermost batch ends are used for every quad, so the matrix stack and scissor must not change
+ * while a batch is open.
+ */
+object QuadBatch {
+    private const val STRIDE = 6
+
+    private var data = IntArray(STRIDE * 256)
+    private var quadCount = 0
+    private var depth = 0
+    private var minX = 0
+    private var minY = 0
+    private var maxX = 0
+    private var maxY = 0
+
+    fun begin() {
+        if (depth++ == 0) {
+            quadCount = 0
+            minX = Int.MAX_VALUE
+            minY = Int.MAX_VALUE
+            maxX = Int.MIN_VALUE
+            maxY = Int.MIN_VALUE
+        }
+    }
+
+    fun end(context: DrawContext) {
+        check(depth > 0) { "QuadBatch.end without begin" }
+        if (--depth > 0 || quadCount == 0) return
+
+        val pose = Matrix3x2f(context.matrices)
+        val scissor = context.scissorStack.peekLast()
+        val quadBounds = ScreenRect(minX, minY, maxX - minX, maxY - minY).transformEachVertex(pose)
+        val bounds = if (scissor != null) scissor.intersection(quadBounds) else quadBounds
+
+        context.state.addSimpleElement(
+            BatchedQuadsRenderState(RenderPipelines.GUI, pose, data.copyOf(quadCount * STRIDE), quadCount, scissor, bounds)
+        )
+        quadCount = 0
+    }
+
+    inline fun draw(context: DrawContext, block: () -> Unit) {
+        begin()
+        try {
+            block()
+        } finally {
+            end(context)
+        }
+    }
+
+    fun isOpen(): Boolean = depth > 0
+
+    fun fill(x1: Int, y1: Int, x2: Int, y2: Int, color: Int) {
+        gradient(x1, y1, x2, y2, color, color)
+    }
+
+    fun gradient(x1: Int, y1: Int, x2: Int, y2: Int, colorTop: Int, colorBottom: Int) {
+        val left = minOf(x1, x2)
+        val right = maxOf(x1, x2)
+        val top = minOf(y1, y2)
+        val bottom = maxOf(y1, y2)
+        if (left == right || top == bottom) return
+        if ((colorTop ushr 24) == 0 && (colorBottom ushr 24) == 0) return
+
+        if ((quadCount + 1) * STRIDE > data.size) data = data.copyOf(data.size * 2)
+        val base = quadCount * STRIDE
+        data[base] = left
+        data[base + 1] = top
+        data[base + 2] = right
+        data[base + 3] = bottom
+        data[base + 4] = colorTop
+        data[base + 5] = colorBottom
+        quadCount++
+
+        if (left < minX) minX = left
+        if (top < minY) minY = top
+        if (right > maxX) maxX = right
+        if (bottom > maxY) maxY = bottom
+    }
+
+    private class BatchedQuadsRenderState(
+        private val pipeline: RenderPipeline,
+        private val pose: Matrix3x2f,
+        private val quads: IntArray,
+        private val count: Int,
+        private val scissorArea: ScreenRect?,
+        private val bounds: ScreenRect?
+    ) : SimpleGuiElementRenderState {
+        override fun setupVertices(vertices: VertexConsumer) {
+            for (i in 0 until count) {
+                val base = i * STRIDE
+                val x1 = quads[base].toFloat()
+                val y1 = quads[base + 1].toFloat()
+                val x2 = quads[base + 2].toFloat()
+                val y2 = quads[base + 3].toFloat()
+                val top = quads[base + 4]
+                val bottom = quads[base + 5]
+                vertices.vertex(pose, x1, y1).color(top)
+                vertices.vertex(pose, x1, y2).color(bottom)
+                vertices.vertex(pose, x2, y2).color(bottom)
+                vertices.vertex(pose, x2, y1).color(top)
+            }
+        }
+
+        override fun pipeline(): RenderPipeline = pipeline
+        override fun textureSetup(): TextureSetup = TextureSetup.empty()
+        override fun scissorArea(): ScreenRect? = scissorArea
+        override fun bounds(): ScreenRect? = bounds
+    }
+}
@@ -0,0 +1,34 @@
+package code.cinnamon.gui.utils
+
+import code.cinnamon.gui.theme.CinnamonTheme
+import net.minecraft.client.MinecraftClient
+import net.minecraft.text.Style
+import net.minecraft.text.Text
+import net.minecraft.util.Identifier
+
+/**
+ * A single styled text for a readout whose value changes all the time (coordinates, frame times,
+ * ping, track position). Putting those strings through the shared [StyledTextCache] would keep
+ * evicting its long-lived labels, so each readout holds its own [text] and rebuilds it only when
+ * the string or the Cinnamon font changes.
+ */
+class ReadoutText {
+    var text: Text = Text.empty()
+        private set
+    var width: Int = 0
+        private set
+
+    private var string: String? = null
+    private var font: Identifier? = null
+
+    /** Returns true when [text] was rebuilt. */
+    fun update(value: String): Boolean {
+        val currentFont = CinnamonTheme.getCurrentFont()
+        if (value == string && currentFont == font) return false
+        string = value
+        font = currentFont
+        text = Text.literal(value).setStyle(Style.EMPTY.withFont(currentFont))
+        width = MinecraftClient.getInstance().textRenderer.getWidth(text)
+        return true
+    }
+}
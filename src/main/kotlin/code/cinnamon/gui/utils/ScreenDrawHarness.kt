@@ -0,0 +1,150 @@
+package code.cinnamon.gui.utils
+
+import code.cinnamon.gui.CinnamonScreen
+import code.cinnamon.gui.screens.ColorPickerScreen
+import code.cinnamon.gui.screens.KeybindingsScreen
+import code.cinnamon.gui.screens.ModulesScreen
+import code.cinnamon.gui.screens.ThemeManagerScreen
+import net.minecraft.client.MinecraftClient
+import net.minecraft.client.gui.DrawContext
+import net.minecraft.client.gui.render.state.GuiRenderState
+import net.minecraft.client.gui.screen.Screen
+import java.io.File
+import java.nio.file.Paths
+
+/**
+ * Drives the Cinnamon screens through a fixed script of mouse and scroll events, rendering each
+ * step into a throwaway GuiRenderState that is never submitted to the GPU. The draw-command counts
+ * per step are compared with golden files in config/cinnamon/golden; a missing golden is written
+ * from the current run. The HUD is left out, as what it draws follows live game state; use
+ * /hudprofiler for it.
+ */
+object ScreenDrawHarness {
+    private const val WIDTH = 854
+    private const val HEIGHT = 480
+    private const val FRAME_MS = 50L
+    private const val SETTLE_FRAMES = 20
+
+    data class Result(val name: String, val status: Status, val file: File)
+
+    enum class Status { PASSED, FAILED, CREATED }
+
+    // One recorded frame: its count line for the golden, and the command list behind it.
+    private class Step(val line: String, val listing: String)
+
+    private val goldenDir: File get() = Paths.get("config", "cinnamon", "golden").toFile()
+
+    private val targets: List<Pair<String, () -> Screen>> = listOf(
+        "modules" to { ModulesScreen() },
+        "keybindings" to { KeybindingsScreen() },
+        "theme_manager" to { ThemeManagerScreen() },
+        "color_picker" to { ColorPickerScreen(0xFF00AAFF.toInt(), {}) }
+    )
+
+    /** Runs every target; when [update] is set, goldens are rewritten instead of compared. */
+    fun runAll(update: Boolean): List<Result> {
+        goldenDir.mkdirs()
+        val results = ArrayList<Result>()
+        // Animations run off a pinned clock, so each step sees the same progress on every run.
+        AnimationClock.pin(0L)
+        try {
+            for ((name, factory) in targets) {
+                results.add(check(name, runScreen(factory()), update))
+            }
+        } finally {
+            AnimationClock.unpin()
+        }
+        return results
+    }
+
+    private fun runScreen(screen: Screen): List<Step> {
+        screen.init(MinecraftClient.getInstance(), WIDTH, HEIGHT)
+
+        val steps = ArrayList<Step>()
+        val centerX = WIDTH / 2.0
+        val centerY = HEIGHT / 2.0
+        try {
+            steps.add(frame("idle") { screen.render(it, -1, -1, 0f) })
+
+            screen.mouseMoved(centerX, centerY)
+            steps.add(frame("hover_center") { screen.render(it, centerX.toInt(), centerY.toInt(), 0f) })
+
+            screen.mouseScrolled(centerX, centerY, 0.0, -3.0)
+            steps.add(frame("scroll_down") { screen.render(it, centerX.toInt(), centerY.toInt(), 0f) })
+
+            screen.mouseScrolled(centerX, centerY, 0.0, 3.0)
+            steps.add(frame("scroll_up") { screen.render(it, centerX.toInt(), centerY.toInt(), 0f) })
+
+            if (screen is CinnamonScreen) {
+                val (closeX, closeY) = screen.closeButtonCenter()
+                screen.mouseMoved(closeX, closeY)
+                steps.add(frame("hover_header") { screen.render(it, closeX.toInt(), closeY.toInt(), 0f) })
+            }
+        } finally {
+            screen.removed()
+        }
+        return steps
+    }
+
+    private fun frame(step: String, render: (DrawContext) -> Unit): Step {
+        // Let sidebar, dropdown, toggle and scroll animations finish before recording.
+        repeat(SETTLE_FRAMES) {
+            AnimationClock.advance(FRAME_MS)
+            render(DrawContext(MinecraftClient.getInstance(), GuiRenderState()))
+        }
+        AnimationClock.advance(FRAME_MS)
+
+        val context = DrawContext(MinecraftClient.getInstance(), GuiRenderState())
+        DrawCommandRecorder.begin()
+        val counts = try {
+            render(context)
+            DrawCommandRecorder.end()
+        } finally {
+            DrawCommandRecorder.recording = false
+        }
+
+        val builder = StringBuilder(step)
+        var total = 0
+        for (kind in counts.indices) {
+            builder.append(' ').append(DrawCommandRecorder.KIND_NAMES[kind]).append('=').append(counts[kind])
+            total += counts[kind]
+        }
+        builder.append(" total=").append(total)
+        return Step(builder.toString(), commandListing(step))
+    }
+
+    private fun check(name: String, steps: List<Step>, update: Boolean): Result {
+        val golden = File(goldenDir, "$name.txt")
+        val actual = File(goldenDir, "$name.actual.txt")
+        val scale = MinecraftClient.getInstance().window.scaleFactor
+        val lines = listOf("# ${WIDTH}x$HEIGHT scale $scale") + steps.map { it.line }
+        val content = lines.joinToString("\n") + "\n"
+
+        if (update || !golden.exists()) {
+            golden.writeText(content)
+            actual.delete()
+            return Result(name, Status.CREATED, golden)
+        }
+        if (golden.readText() == content) {
+            actual.delete()
+            return Result(name, Status.PASSED, golden)
+        }
+
+        // Listings only for the steps whose line changed; the first line is the header.
+        val expected = golden.readLines()
+        val failing = steps.filterIndexed { i, step -> expected.getOrNull(i + 1) != step.line }
+        actual.writeText(content + failing.joinToString("") { "\n" + it.listing })
+        println("[ScreenDrawHarness] $name differs from golden, see ${actual.absolutePath}")
+        return Result(name, Status.FAILED, actual)
+    }
+
+    // Command list of the step just recorded, to see what a failing frame actually drew.
+    private fun commandListing(step: String): String {
+        val builder = StringBuilder("# $step commands\n")
+        for (i in 0 until DrawCommandRecorder.commandCount()) {
+            builder.append(DrawCommandRecorder.KIND_NAMES[DrawCommandRecorder.kindAt(i)])
+                .append(' ').append(DrawCommandRecorder.boundsAt(i)).append('\n')
+        }
+        return builder.toString()
+    }
+}
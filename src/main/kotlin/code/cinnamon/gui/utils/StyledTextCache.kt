@@ -0,0 +1,62 @@
+package code.cinnamon.gui.utils
+
+import code.cinnamon.gui.theme.CinnamonTheme
+import net.fabricmc.fabric.api.resource.ResourceManagerHelper
+import net.fabricmc.fabric.api.resource.SimpleSynchronousResourceReloadListener
+import net.minecraft.client.MinecraftClient
+import net.minecraft.resource.ResourceManager
+import net.minecraft.resource.ResourceType
+import net.minecraft.text.Style
+import net.minecraft.text.Text
+import net.minecraft.util.Identifier
+
+/**
+ * Bounded cache of literal texts styled with the current Cinnamon font, together with their measured widths.
+ * Entries are dropped when the font switches or resources are reloaded, since glyph widths may change.
+ */
+object StyledTextCache {
+    private const val MAX_ENTRIES = 512
+
+    private class Entry(val text: Text) {
+        var width: Int = -1
+    }
+
+    private val entries = object : LinkedHashMap<String, Entry>(MAX_ENTRIES, 0.75f, true) {
+        override fun removeEldestEntry(eldest: MutableMap.MutableEntry<String, Entry>): Boolean = size > MAX_ENTRIES
+    }
+    private var cachedFont: Identifier? = null
+
+    fun registerReloadListener() {
+        ResourceManagerHelper.get(ResourceType.CLIENT_RESOURCES).registerReloadListener(
+            object : SimpleSynchronousResourceReloadListener {
+                override fun getFabricId(): Identifier = Identifier.of("cinnamon", "styled_text_cache")
+                override fun reload(manager: ResourceManager) {
+                    invalidate()
+                }
+            }
+        )
+    }
+
+    fun invalidate() {
+        entries.clear()
+    }
+
+    private fun entry(string: String): Entry {
+        val font = CinnamonTheme.getCurrentFont()
+        if (font != cachedFont) {
+            entries.clear()
+            cachedFont = font
+        }
+        return entries.getOrPut(string) { Entry(Text.literal(string).setStyle(Style.EMPTY.withFont(font))) }
+    }
+
+    fun get(string: String): Text = entry(string).text
+
+    fun width(string: String): Int {
+        val entry = entry(string)
+        if (entry.width < 0) {
+            entry.width = MinecraftClient.getInstance().textRenderer.getWidth(entry.text)
+        }
+        return entry.width
+    }
+}
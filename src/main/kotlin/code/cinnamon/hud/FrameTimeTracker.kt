@@ -0,0 +1,84 @@
+package code.cinnamon.hud
+
+/**
+ * Sliding window of the last [WINDOW] frame durations, fed once per frame from the HUD callback.
+ * Intervals over half a second are dropped, since the HUD callback does not run while it is hidden.
+ * A fixed-bucket histogram (0.1 ms buckets up to 100 ms) is kept in step with the ring buffer,
+ * so recording is O(1) and percentile queries are a bounded histogram walk.
+ */
+object FrameTimeTracker {
+    const val WINDOW = 4096
+    private const val BUCKET_NANOS = 100_000L
+    private const val BUCKETS = 1000
+    // Longer than any real frame; the HUD was not rendered in between (pause menu, F1, loading).
+    private const val MAX_FRAME_GAP_NANOS = 500_000_000L
+
+    private val samples = LongArray(WINDOW)
+    private val histogram = IntArray(BUCKETS + 1)
+    private var head = 0
+    private var count = 0
+    private var sum = 0L
+    private var maxBucket = 0
+    private var lastFrameNanos = 0L
+
+    fun onFrame() {
+        val now = System.nanoTime()
+        val elapsed = now - lastFrameNanos
+        if (lastFrameNanos != 0L && elapsed <= MAX_FRAME_GAP_NANOS) record(elapsed)
+        lastFrameNanos = now
+    }
+
+    fun record(frameNanos: Long) {
+        if (count == WINDOW) {
+            val evicted = samples[head]
+            sum -= evicted
+            histogram[bucketOf(evicted)]--
+        } else {
+            count++
+        }
+
+        samples[head] = frameNanos
+        head = (head + 1) % WINDOW
+        sum += frameNanos
+
+        val bucket = bucketOf(frameNanos)
+        histogram[bucket]++
+        if (bucket > maxBucket) maxBucket = bucket
+        while (maxBucket > 0 && histogram[maxBucket] == 0) maxBucket--
+    }
+
+    fun sampleCount(): Int = count
+
+    fun averageNanos(): Long = if (count == 0) 0L else sum / count
+
+    /** Upper edge of the bucket holding the slowest frame in the window. */
+    fun maxNanos(): Long {
+        if (count == 0) return 0L
+        if (maxBucket == BUCKETS) {
+            var max = 0L
+            for (i in 0 until count) max = maxOf(max, samples[i])
+            return max
+        }
+        return (maxBucket + 1) * BUCKET_NANOS
+    }
+
+    /** Frame time that the slowest [fraction] of frames meet or exceed, e.g. 0.01 for the 1% low. */
+    fun slowestFractionNanos(fraction: Double): Long {
+        if (count == 0) return 0L
+        val target = maxOf(1, (count * fraction).toInt())
+        var seen = 0
+        for (bucket in maxBucket downTo 0) {
+            seen += histogram[bucket]
+            if (seen >= target) return (bucket + 1) * BUCKET_NANOS
+        }
+        return BUCKET_NANOS
+    }
+
+    /** Returns the [age]-th most recent frame duration (0 = latest), or 0 if not recorded yet. */
+    fun recent(age: Int): Long {
+        if (age >= count) return 0L
+        return samples[(head - 1 - age + WINDOW) % WINDOW]
+    }
+
+    private fun bucketOf(nanos: Long): Int = (nanos / BUCKET_NANOS).toInt().coerceIn(0, BUCKETS)
+}
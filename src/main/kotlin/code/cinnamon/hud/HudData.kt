@@ -0,0 +1,105 @@
+package code.cinnamon.hud
+
+import code.cinnamon.events.CinnamonEvents
+import code.cinnamon.spotify.SpotifyTrackData
+import code.cinnamon.util.PacketHandlerAPI
+import net.minecraft.client.MinecraftClient
+import net.minecraft.entity.EquipmentSlot
+import net.minecraft.entity.player.PlayerEntity
+import net.minecraft.item.ItemStack
+import net.minecraft.util.math.MathHelper
+import java.util.concurrent.atomic.AtomicReference
+
+/**
+ * Immutable view of the game state the HUD displays, sampled once per client tick.
+ * Values produced off-thread (Spotify, packet queues) are merged into the same snapshot.
+ */
+data class HudSnapshot(
+    val tick: Long = 0L,
+    val hasPlayer: Boolean = false,
+    val prevX: Double = 0.0,
+    val prevY: Double = 0.0,
+    val prevZ: Double = 0.0,
+    val x: Double = 0.0,
+    val y: Double = 0.0,
+    val z: Double = 0.0,
+    val latency: Int = 0,
+    val fps: Int = 0,
+    val armor: List<ItemStack> = EMPTY_ARMOR,
+    val forwardPressed: Boolean = false,
+    val leftPressed: Boolean = false,
+    val backPressed: Boolean = false,
+    val rightPressed: Boolean = false,
+    val queuedPackets: Int = 0,
+    val delayedPackets: Int = 0,
+    val spotifyTrack: SpotifyTrackData? = null,
+    val spotifyTrackVersion: Int = 0
+) {
+    fun lerpX(tickDelta: Float): Double = MathHelper.lerp(tickDelta.toDouble(), prevX, x)
+    fun lerpY(tickDelta: Float): Double = MathHelper.lerp(tickDelta.toDouble(), prevY, y)
+    fun lerpZ(tickDelta: Float): Double = MathHelper.lerp(tickDelta.toDouble(), prevZ, z)
+
+    companion object {
+        /** Armor slots in display order, top to bottom. */
+        val ARMOR_SLOTS = arrayOf(EquipmentSlot.HEAD, EquipmentSlot.CHEST, EquipmentSlot.LEGS, EquipmentSlot.FEET)
+        val EMPTY_ARMOR: List<ItemStack> = List(ARMOR_SLOTS.size) { ItemStack.EMPTY }
+    }
+}
+
+object HudData {
+    private val current = AtomicReference(HudSnapshot())
+    private var tickCounter = 0L
+
+    fun init() {
+        CinnamonEvents.TICK.subscribe(CinnamonEvents.TickListener { client -> sample(client) })
+    }
+
+    fun snapshot(): HudSnapshot = current.get()
+
+    /** Publishes a new track from the Spotify polling thread without waiting for the next tick. */
+    fun publishSpotifyTrack(track: SpotifyTrackData?) {
+        current.updateAndGet { it.copy(spotifyTrack = track, spotifyTrackVersion = it.spotifyTrackVersion + 1) }
+    }
+
+    private fun sample(client: MinecraftClient) {
+        val player = client.player
+        val tick = ++tickCounter
+        val latency = if (player != null) client.networkHandler?.getPlayerListEntry(player.uuid)?.latency ?: 0 else 0
+        val queued = PacketHandlerAPI.getQueuedPacketCount()
+        val delayed = PacketHandlerAPI.getDelayedPacketCount()
+
+        current.updateAndGet { previous ->
+            previous.copy(
+                tick = tick,
+                hasPlayer = player != null,
+                prevX = player?.lastX ?: 0.0,
+                prevY = player?.lastY ?: 0.0,
+                prevZ = player?.lastZ ?: 0.0,
+                x = player?.x ?: 0.0,
+                y = player?.y ?: 0.0,
+                z = player?.z ?: 0.0,
+                latency = latency,
+                fps = client.currentFps,
+                armor = if (player != null) sampleArmor(player, previous.armor) else HudSnapshot.EMPTY_ARMOR,
+                forwardPressed = client.options.forwardKey.isPressed,
+                leftPressed = client.options.leftKey.isPressed,
+                backPressed = client.options.backKey.isPressed,
+                rightPressed = client.options.rightKey.isPressed,
+                queuedPackets = queued,
+                delayedPackets = delayed
+            )
+        }
+    }
+
+    private fun sampleArmor(player: PlayerEntity, previous: List<ItemStack>): List<ItemStack> {
+        var changed = false
+        for (i in HudSnapshot.ARMOR_SLOTS.indices) {
+            if (!ItemStack.areEqual(player.getEquippedStack(HudSnapshot.ARMOR_SLOTS[i]), previous[i])) {
+                changed = true
+                break
+            }
+        }
+        if (!changed) return previous
+        return List(HudSnapshot.ARMOR_SLOTS.size) { player.getEquippedStack(HudSnapshot.ARMOR_SLOTS[it]).copy() }
+    }
+}
@@ -8,6 +8,7 @@ import code.cinnamon.gui.CinnamonScreen
 import code.cinnamon.modules.BooleanSetting
 import code.cinnamon.modules.ColorSetting
 import code.cinnamon.modules.Setting
+import code.cinnamon.modules.latestStamp
 
 abstract class HudElement(
     initialX: Float,
@@ -19,19 +20,32 @@ abstract class HudElement(
     var scale: Float = 1.0f
         set(value) {
             field = max(0.5f, min(3.0f, value))
+            markDirty()
         }
 
     var isEnabled: Boolean = true
+        set(value) {
+            if (field != value) {
+                field = value
+                HudManager.onElementEnabledChanged()
+            }
+        }
 
-    private val textColorSetting = ColorSetting("Text Color", 0xFFFFFFFF.toInt()) {
-        HudManager.saveHudConfig()
-    }
-    private val backgroundColorSetting = ColorSetting("Background Color", 0x00000000.toInt()) {
-        HudManager.saveHudConfig()
-    }
-    private val textShadowEnabledSetting = BooleanSetting("Text Shadow", false) {
-        HudManager.saveHudConfig()
-    }
+    /** Tick progress of the frame being laid out, for elements that interpolate snapshot values. */
+    protected var partialTick: Float = 0f
+        private set
+
+    internal var profilerSlot: Int = -1
+
+    var measuredWidth: Int = 0
+        private set
+    var measuredHeight: Int = 0
+        private set
+
+    // Changes are picked up through the setting stamps: layout() rebuilds and HudManager saves.
+    private val textColorSetting = ColorSetting("Text Color", 0xFFFFFFFF.toInt())
+    private val backgroundColorSetting = ColorSetting("Background Color", 0x00000000.toInt())
+    private val textShadowEnabledSetting = BooleanSetting("Text Shadow", false)
 
     val settings = mutableListOf<Setting<*>>()
 
@@ -42,17 +56,17 @@ abstract class HudElement(
     }
 
     var textColor: Int
-        get() = textColorSetting.value
+        get() = textColorSetting.colorValue
         set(value) {
             textColorSetting.set(value)
         }
     var backgroundColor: Int
-        get() = backgroundColorSetting.value
+        get() = backgroundColorSetting.colorValue
         set(value) {
             backgroundColorSetting.set(value)
         }
     var textShadowEnabled: Boolean
-        get() = textShadowEnabledSetting.value
+        get() = textShadowEnabledSetting.booleanValue
         set(value) {
             textShadowEnabledSetting.set(value)
         }
@@ -64,16 +78,56 @@ abstract class HudElement(
     private var currentMouseX: Double = 0.0
     private var currentMouseY: Double = 0.0
 
+    private var contentDirty: Boolean = true
+    private var seenSettingsStamp: Long = 0L
+
     abstract fun renderElement(context: DrawContext, tickDelta: Float)
 
+    /**
+     * Returns true when the data this element displays has changed since the last [rebuildContent].
+     * Elements that don't override this are rebuilt every frame (immediate mode).
+     */
+    protected open fun hasContentChanged(): Boolean = true
+
+    /**
+     * Rebuilds the cached texts and sizes that [renderElement] draws from.
+     */
+    protected open fun rebuildContent() {}
+
+    fun markDirty() {
+        contentDirty = true
+    }
+
+    /**
+     * Measure pass: rebuilds the content if it changed and stores the resulting size in
+     * [measuredWidth] and [measuredHeight], so the render pass and hit testing never re-measure text.
+     */
+    fun layout(tickDelta: Float) {
+        partialTick = tickDelta
+        val settingsStamp = settingsStamp()
+        if (contentDirty || settingsStamp != seenSettingsStamp || hasContentChanged()) {
+            rebuildContent()
+            contentDirty = false
+            seenSettingsStamp = settingsStamp
+            measuredWidth = getWidth()
+            measuredHeight = getHeight()
+        }
+    }
+
+    /** Stamp of the most recent change to any of this element's persisted settings. */
+    fun settingsStamp(): Long = persistentSettings().latestStamp()
+
+    /** The settings schema saved for this element; includes settings that have their own UI. */
+    open fun persistentSettings(): List<Setting<*>> = settings
+
     abstract fun getWidth(): Int
     abstract fun getHeight(): Int
     abstract fun getName(): String
     abstract val description: String
 
     open fun isMouseOver(scaledMouseX: Double, scaledMouseY: Double): Boolean {
-        val elementScaledWidth = getWidth() * this.scale
-        val elementScaledHeight = getHeight() * this.scale
+        val elementScaledWidth = measuredWidth * this.scale
+        val elementScaledHeight = measuredHeight * this.scale
         return scaledMouseX >= _x && scaledMouseX <= _x + elementScaledWidth &&
                 scaledMouseY >= _y && scaledMouseY <= _y + elementScaledHeight
     }
@@ -89,8 +143,8 @@ abstract class HudElement(
             _x = (scaledMouseX - dragOffsetX).toFloat()
             _y = (scaledMouseY - dragOffsetY).toFloat()
 
-            val elementScaledWidth = getWidth() * this.scale
-            val elementScaledHeight = getHeight() * this.scale
+            val elementScaledWidth = measuredWidth * this.scale
+            val elementScaledHeight = measuredHeight * this.scale
 
             _x = max(0f, min(_x, screenScaledWidth.toFloat() - elementScaledWidth))
             _y = max(0f, min(_y, screenScaledHeight.toFloat() - elementScaledHeight))
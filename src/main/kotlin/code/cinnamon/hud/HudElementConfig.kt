@@ -1,7 +1,19 @@
 package code.cinnamon.hud
 
 import kotlinx.serialization.Serializable
+import kotlinx.serialization.json.JsonObject
 
+/** Saved state of one HUD element; [settings] is its settings schema encoded by SettingsCodec. */
+@Serializable
+data class HudElementState(
+    val x: Float,
+    val y: Float,
+    val scale: Float,
+    val isEnabled: Boolean,
+    val settings: JsonObject = JsonObject(emptyMap()),
+)
+
+/** Pre-schema HUD format with one field per element option; only read to migrate old configs. */
 @Serializable
 data class HudElementConfig(
     val name: String,
@@ -0,0 +1,142 @@
+package code.cinnamon.hud
+
+/**
+ * Per-frame bounds table of the rendered HUD elements with a uniform grid on top, so mouse
+ * routing is a single cell lookup instead of a scan that re-measures every element.
+ * Bounds are packed as (x, y, width, height) in scaled screen coordinates, in render order.
+ */
+internal class HudHitIndex {
+    private var elements: Array<HudElement> = emptyArray()
+    private var bounds = FloatArray(0)
+    private var count = 0
+
+    private var originX = 0f
+    private var originY = 0f
+    private var cellWidth = CELL_SIZE
+    private var cellHeight = CELL_SIZE
+    private var columns = 0
+    private var rows = 0
+    private var cellStart = IntArray(1)
+    private var cellItems = IntArray(0)
+
+    /** Records the bounds from the layout pass; the grid is only rebuilt when they changed. */
+    fun update(rendered: Array<HudElement>) {
+        var changed = rendered !== elements || rendered.size != count
+        if (bounds.size < rendered.size * 4) {
+            bounds = FloatArray(rendered.size * 4)
+            changed = true
+        }
+
+        for (i in rendered.indices) {
+            val element = rendered[i]
+            val base = i * 4
+            val x = element.getX()
+            val y = element.getY()
+            val w = element.measuredWidth * element.scale
+            val h = element.measuredHeight * element.scale
+            if (changed || bounds[base] != x || bounds[base + 1] != y || bounds[base + 2] != w || bounds[base + 3] != h) {
+                bounds[base] = x
+                bounds[base + 1] = y
+                bounds[base + 2] = w
+                bounds[base + 3] = h
+                changed = true
+            }
+        }
+
+        elements = rendered
+        count = rendered.size
+        if (changed) rebuildGrid()
+    }
+
+    /** Returns the topmost (last rendered) element containing the point, or null. */
+    fun elementAt(x: Double, y: Double): HudElement? {
+        val index = indexAt(x, y)
+        return if (index >= 0) elements[index] else null
+    }
+
+    fun contains(element: HudElement, x: Double, y: Double): Boolean {
+        for (i in 0 until count) {
+            if (elements[i] === element) return containsPoint(i, x, y)
+        }
+        return false
+    }
+
+    private fun indexAt(x: Double, y: Double): Int {
+        if (columns == 0) return -1
+        val column = ((x - originX) / cellWidth).toInt()
+        val row = ((y - originY) / cellHeight).toInt()
+        if (x < originX || y < originY || column >= columns || row >= rows) return -1
+
+        val cell = row * columns + column
+        var best = -1
+        for (i in cellStart[cell] until cellStart[cell + 1]) {
+            val index = cellItems[i]
+            if (index > best && containsPoint(index, x, y)) best = index
+        }
+        return best
+    }
+
+    private fun containsPoint(index: Int, x: Double, y: Double): Boolean {
+        val base = index * 4
+        val left = bounds[base]
+        val top = bounds[base + 1]
+        return x >= left && x <= left + bounds[base + 2] && y >= top && y <= top + bounds[base + 3]
+    }
+
+    private fun rebuildGrid() {
+        if (count == 0) {
+            columns = 0
+            rows = 0
+            return
+        }
+
+        var minX = Float.MAX_VALUE
+        var minY = Float.MAX_VALUE
+        var maxX = -Float.MAX_VALUE
+        var maxY = -Float.MAX_VALUE
+        for (i in 0 until count) {
+            val base = i * 4
+            minX = minOf(minX, bounds[base])
+            minY = minOf(minY, bounds[base + 1])
+            maxX = maxOf(maxX, bounds[base] + bounds[base + 2])
+            maxY = maxOf(maxY, bounds[base + 1] + bounds[base + 3])
+        }
+
+        originX = minX
+        originY = minY
+        cellWidth = maxOf(CELL_SIZE, (maxX - minX) / MAX_CELLS_PER_AXIS)
+        cellHeight = maxOf(CELL_SIZE, (maxY - minY) / MAX_CELLS_PER_AXIS)
+        columns = ((maxX - minX) / cellWidth).toInt() + 1
+        rows = ((maxY - minY) / cellHeight).toInt() + 1
+
+        val cellCount = columns * rows
+        if (cellStart.size < cellCount + 1) cellStart = IntArray(cellCount + 1)
+        cellStart.fill(0, 0, cellCount + 1)
+
+        // Counting pass, then prefix sums, then a fill pass into the flat item array.
+        for (i in 0 until count) forEachCell(i) { cell -> cellStart[cell + 1]++ }
+        for (cell in 0 until cellCount) cellStart[cell + 1] += cellStart[cell]
+        if (cellItems.size < cellStart[cellCount]) cellItems = IntArray(cellStart[cellCount])
+
+        val cursor = cellStart.copyOf(cellCount)
+        for (i in 0 until count) forEachCell(i) { cell -> cellItems[cursor[cell]++] = i }
+    }
+
+    private inline fun forEachCell(index: Int, action: (Int) -> Unit) {
+        val base = index * 4
+        val firstColumn = ((bounds[base] - originX) / cellWidth).toInt().coerceIn(0, columns - 1)
+        val lastColumn = ((bounds[base] + bounds[base + 2] - originX) / cellWidth).toInt().coerceIn(0, columns - 1)
+        val firstRow = ((bounds[base + 1] - originY) / cellHeight).toInt().coerceIn(0, rows - 1)
+        val lastRow = ((bounds[base + 1] + bounds[base + 3] - originY) / cellHeight).toInt().coerceIn(0, rows - 1)
+        for (row in firstRow..lastRow) {
+            for (column in firstColumn..lastColumn) {
+                action(row * columns + column)
+            }
+        }
+    }
+
+    companion object {
+        private const val CELL_SIZE = 64f
+        private const val MAX_CELLS_PER_AXIS = 64
+    }
+}
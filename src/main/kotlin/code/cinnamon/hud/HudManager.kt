@@ -1,5 +1,6 @@
 package code.cinnamon.hud
 
+import code.cinnamon.gui.utils.StyledTextCache
 import code.cinnamon.hud.elements.CoordinatesHudElement
 import code.cinnamon.hud.elements.FpsHudElement
 import code.cinnamon.hud.elements.PingHudElement
@@ -16,11 +17,20 @@ import code.cinnamon.hud.elements.LookAtHudElement
 import code.cinnamon.hud.elements.SpotifyHudElement
 import net.minecraft.text.Style
 import net.minecraft.text.Text
+import net.minecraft.util.Identifier
+import code.cinnamon.config.ConfigStore
+import code.cinnamon.events.CinnamonEvents
+import code.cinnamon.modules.SettingStamps
+import code.cinnamon.modules.SettingsCodec
+import kotlinx.serialization.json.JsonElement
+import kotlinx.serialization.json.JsonPrimitive
 import kotlinx.serialization.json.Json
 import kotlinx.serialization.encodeToString
 import kotlinx.serialization.decodeFromString
+import net.fabricmc.loader.api.FabricLoader
 import java.io.File
 import java.nio.file.Paths
+import kotlin.math.max
 
 object HudManager {
     private var editMode: Boolean = false
@@ -41,11 +51,41 @@ object HudManager {
     val packetHandlerHudElement = PacketHandlerHudElement(10f, 90f)
 
     private val json = Json { prettyPrint = true; ignoreUnknownKeys = true }
-    private val configDir = Paths.get("config", "cinnamon").toFile()
-    private val configFile = File(configDir, "hud.json")
+    private val legacyConfigFile = File(Paths.get("config", "cinnamon").toFile(), "hud.json")
+    private val store = ConfigStore.namespace("hud_elements", HudElementState.serializer())
+    private val legacyStore = ConfigStore.namespace("hud", HudElementConfig.serializer())
+
+    private var allElements: Array<HudElement> = emptyArray()
+    private var enabledElements: Array<HudElement> = emptyArray()
+    private var enabledElementsDirty = true
+    private val hitIndex = HudHitIndex()
+
+    private val devMode = FabricLoader.getInstance().isDevelopmentEnvironment
+    private var allocationSamples = 0
+    private var allocationSampleTotal = 0L
+    private var allocationText: Text = Text.empty()
+
+    var lastRenderAllocatedBytes: Long = 0L
+        private set
 
     fun registerHudElement(element: HudElement) {
         hudElements.add(element)
+        element.profilerSlot = HudProfiler.register(element)
+        allElements = hudElements.toTypedArray()
+        enabledElementsDirty = true
+    }
+
+    internal fun onElementEnabledChanged() {
+        enabledElementsDirty = true
+    }
+
+    private fun getRenderableElements(): Array<HudElement> {
+        if (isEditMode()) return allElements
+        if (enabledElementsDirty) {
+            enabledElements = hudElements.filter { it.isEnabled }.toTypedArray()
+            enabledElementsDirty = false
+        }
+        return enabledElements
     }
 
     fun init() {
@@ -59,28 +99,91 @@ object HudManager {
         registerHudElement(LookAtHudElement(10f, 160f))
 
         loadHudConfig()
+        savedSettingsStamp = SettingStamps.current()
+        CinnamonEvents.TICK.subscribe(CinnamonEvents.TickListener { saveChangedSettings() })
     }
 
-    fun render(context: DrawContext, tickDelta: Float) {
-        val elementsToRender = if (isEditMode()) {
-            hudElements
-        } else {
-            hudElements.filter { it.isEnabled }
+    private var checkedSettingsStamp = 0L
+    private var savedSettingsStamp = 0L
+
+    // Setting edits only bump stamps; one save per tick at most picks up any number of them.
+    private fun saveChangedSettings() {
+        val current = SettingStamps.current()
+        if (current == checkedSettingsStamp) return
+        checkedSettingsStamp = current
+        var latest = 0L
+        for (element in hudElements) latest = max(latest, element.settingsStamp())
+        if (latest > savedSettingsStamp) {
+            savedSettingsStamp = latest
+            saveHudConfig()
         }
-        elementsToRender.forEach { it.renderElement(context, tickDelta) }
+    }
+
+    private var lastScaledWidth = -1
+    private var lastScaledHeight = -1
+    private var lastFont: Identifier? = null
 
+    fun invalidateAll() {
+        hudElements.forEach { it.markDirty() }
+    }
+
+    private fun checkLayoutInvalidation(mc: MinecraftClient) {
+        val window = mc.window ?: return
+        val font = CinnamonTheme.getCurrentFont()
+        if (window.scaledWidth != lastScaledWidth || window.scaledHeight != lastScaledHeight || font != lastFont) {
+            lastScaledWidth = window.scaledWidth
+            lastScaledHeight = window.scaledHeight
+            lastFont = font
+            invalidateAll()
+        }
+    }
+
+    fun render(context: DrawContext, tickDelta: Float) {
+        val allocatedBefore = if (devMode) HudProfiler.currentThreadAllocatedBytes() else 0L
         val mc = MinecraftClient.getInstance()
-        val currentScreen = mc.currentScreen
+        checkLayoutInvalidation(mc)
 
-        if (isEditMode() && currentScreen is HudScreen) {
+        val editing = isEditMode()
+        val elements = getRenderableElements()
+        val profiling = HudProfiler.enabled
+
+        for (element in elements) {
+            if (editing) element.markDirty()
+            if (profiling) HudProfiler.beginSection()
+            element.layout(tickDelta)
+            if (profiling) HudProfiler.endLayoutSection(element.profilerSlot)
+        }
+        hitIndex.update(elements)
+        for (element in elements) {
+            if (profiling) HudProfiler.beginSection()
+            element.renderElement(context, tickDelta)
+            if (profiling) HudProfiler.endRenderSection(element.profilerSlot)
+        }
+
+        if (editing && mc.currentScreen is HudScreen) {
             renderEditModeOverlay(context)
         }
+
+        if (devMode) {
+            lastRenderAllocatedBytes = HudProfiler.currentThreadAllocatedBytes() - allocatedBefore
+            renderAllocationOverlay(context, mc)
+        }
+    }
+
+    private fun renderAllocationOverlay(context: DrawContext, mc: MinecraftClient) {
+        allocationSampleTotal += lastRenderAllocatedBytes
+        if (++allocationSamples >= 60) {
+            allocationText = Text.literal("HUD alloc: ${allocationSampleTotal / allocationSamples} B/frame")
+            allocationSamples = 0
+            allocationSampleTotal = 0L
+        }
+        context.drawText(mc.textRenderer, allocationText, 2, mc.window.scaledHeight - mc.textRenderer.fontHeight - 2, 0xFFFFFF55.toInt(), true)
     }
 
     private fun renderEditModeOverlay(context: DrawContext) {
         val mc = MinecraftClient.getInstance()
-        val text = Text.literal("HUD Edit Mode - ESC to exit").setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont()))
-        val x = (mc.window.scaledWidth - mc.textRenderer.getWidth(text)) / 2
+        val text = StyledTextCache.get("HUD Edit Mode - ESC to exit")
+        val x = (mc.window.scaledWidth - StyledTextCache.width("HUD Edit Mode - ESC to exit")) / 2
         context.drawText(mc.textRenderer, text, x, 5, 0xFFFFFF, true)
     }
 
@@ -96,7 +199,7 @@ object HudManager {
 
     fun onMouseClicked(mouseX: Double, mouseY: Double, button: Int): Boolean {
         if (!isEditMode()) return false
-        hudElements.firstOrNull { it.isMouseOver(mouseX, mouseY) }?.let { element ->
+        hitIndex.elementAt(mouseX, mouseY)?.let { element ->
             selectedElement = element
             element.startDragging(mouseX, mouseY)
             return true
@@ -108,7 +211,6 @@ object HudManager {
         if (!isEditMode()) return false
         selectedElement?.let {
             it.updateDragging(scaledMouseX, scaledMouseY, screenScaledWidth, screenScaledHeight)
-            saveHudConfig()
         }
         return selectedElement != null
     }
@@ -118,6 +220,7 @@ object HudManager {
         selectedElement?.let {
             it.stopDragging()
             selectedElement = null
+            saveHudConfig()
             return true
         }
         return false
@@ -125,7 +228,7 @@ object HudManager {
 
     fun onMouseScrolled(mouseX: Double, mouseY: Double, delta: Double): Boolean {
         if (!isEditMode()) return false
-        hudElements.firstOrNull { it.isMouseOver(mouseX, mouseY) }?.let { element ->
+        hitIndex.elementAt(mouseX, mouseY)?.let { element ->
             element.scale += (delta * 0.1).toFloat()
             saveHudConfig()
             return true
@@ -150,98 +253,94 @@ object HudManager {
 
     fun getElements(): List<HudElement> = hudElements.toList()
 
+    /** Puts every element's state into the store; only elements that changed are journaled. */
     fun saveHudConfig() {
         try {
-            configDir.mkdirs()
-            val configs = hudElements.map { element ->
-                val genericSettings = element.settings
-                    .filter { it.name !in listOf("Text Color", "Background Color", "Text Shadow") }
-                    .associate { it.name to it.value.toString() }
-
-                when (element) {
-                    is PacketHandlerHudElement -> element.toConfig()
-                    is KeystrokesHudElement -> element.toConfig()
-                    else -> HudElementConfig(
-                        name = element.getName(),
+            hudElements.forEach { element ->
+                store.put(
+                    element.getName(),
+                    HudElementState(
                         x = element.getX(),
                         y = element.getY(),
                         scale = element.scale,
                         isEnabled = element.isEnabled,
-                        textColor = element.textColor,
-                        backgroundColor = element.backgroundColor,
-                        textShadowEnabled = element.textShadowEnabled,
-                        genericSettings = genericSettings
+                        settings = SettingsCodec.encode(element.persistentSettings())
                     )
-                }
+                )
             }
-            val jsonString = json.encodeToString(configs)
-            configFile.writeText(jsonString)
-            println("[HudManager] HUD config saved successfully to ${configFile.absolutePath}")
         } catch (e: Exception) {
             println("[HudManager] Failed to save HUD config: ${e.message}")
         }
     }
 
     fun loadHudConfig() {
-        if (!configFile.exists()) {
-            println("[HudManager] HUD config file not found. Loading default HUD elements.")
+        if (store.isEmpty()) {
+            migrateLegacyConfig()
+        }
+        if (store.isEmpty()) {
+            println("[HudManager] No saved HUD config. Loading default HUD elements.")
             return
         }
 
         try {
-            val jsonString = configFile.readText()
-            val configs = json.decodeFromString<List<HudElementConfig>>(jsonString)
-
-            configs.forEach { config ->
-                hudElements.find { it.getName() == config.name }?.let { element ->
-                    when (element) {
-                        is PacketHandlerHudElement -> element.applyConfig(config)
-                        is KeystrokesHudElement -> element.applyConfig(config)
-                        else -> {
-                            element.setX(config.x)
-                            element.setY(config.y)
-                            element.scale = config.scale
-                            element.isEnabled = config.isEnabled
-                            element.textColor = config.textColor
-                            element.backgroundColor = config.backgroundColor
-                            element.textShadowEnabled = config.textShadowEnabled
-
-                            config.genericSettings.forEach { (settingName, settingValue) ->
-                                element.settings.find { it.name == settingName }?.let { setting ->
-                                    when (setting) {
-                                        is code.cinnamon.modules.BooleanSetting -> setting.value = settingValue.toBoolean()
-                                        is code.cinnamon.modules.LookAtHudSetting -> setting.value = settingValue.toBoolean()
-                                        is code.cinnamon.modules.DoubleSetting -> setting.value = settingValue.toDouble()
-                                        is code.cinnamon.modules.ColorSetting -> setting.value = settingValue.toInt()
-                                        is code.cinnamon.modules.ModeSetting -> setting.value = settingValue
-                                        else -> {}
-                                    }
-                                }
-                            }
-                        }
-                    }
+            store.entries().forEach { (name, state) ->
+                hudElements.find { it.getName() == name }?.let { element ->
+                    element.setX(state.x)
+                    element.setY(state.y)
+                    element.scale = state.scale
+                    element.isEnabled = state.isEnabled
+                    SettingsCodec.decode(element.persistentSettings(), state.settings)
                 }
             }
-            println("[HudManager] HUD config loaded successfully from ${configFile.absolutePath}")
+            println("[HudManager] HUD config loaded successfully")
         } catch (e: Exception) {
             println("[HudManager] Failed to load HUD config: ${e.message}. Loading default HUD elements.")
         }
     }
 
+    // Reads the old per-field format (hud.json or the "hud" namespace) once and rewrites it as schema state.
+    private fun migrateLegacyConfig() {
+        legacyStore.importLegacy(legacyConfigFile) { legacyJson ->
+            json.decodeFromString<List<HudElementConfig>>(legacyJson).forEach { legacyStore.put(it.name, it) }
+        }
+        if (legacyStore.isEmpty()) return
+
+        legacyStore.entries().values.forEach { config ->
+            hudElements.find { it.getName() == config.name }?.let { element -> applyLegacyConfig(element, config) }
+        }
+        saveHudConfig()
+        legacyStore.keys().forEach { legacyStore.remove(it) }
+        println("[HudManager] Migrated HUD config to the settings schema")
+    }
+
+    private fun applyLegacyConfig(element: HudElement, config: HudElementConfig) {
+        element.setX(config.x)
+        element.setY(config.y)
+        element.scale = config.scale
+        element.isEnabled = config.isEnabled
+        element.textColor = config.textColor
+        element.backgroundColor = config.backgroundColor
+        element.textShadowEnabled = config.textShadowEnabled
+
+        val legacyValues = LinkedHashMap<String, JsonElement>()
+        config.keypressedTextColor?.let { legacyValues["Pressed Text Color"] = JsonPrimitive(it) }
+        config.keypressedBackgroundColor?.let { legacyValues["Pressed Background Color"] = JsonPrimitive(it) }
+        config.buttonColor?.let { legacyValues["Button Color"] = JsonPrimitive(it) }
+        config.buttonHoverColor?.let { legacyValues["Button Hover Color"] = JsonPrimitive(it) }
+        config.buttonOutlineColor?.let { legacyValues["Button Outline Color"] = JsonPrimitive(it) }
+        config.genericSettings.forEach { (settingName, text) -> legacyValues[settingName] = JsonPrimitive(text) }
+
+        element.persistentSettings().forEach { setting ->
+            legacyValues[setting.name]?.let { setting.decode(it) }
+        }
+    }
+
     fun handleGlobalMouseClick(mouseX: Double, mouseY: Double, button: Int): Boolean {
         if (isEditMode()) {
             return false
         }
 
-        val mc = MinecraftClient.getInstance()
-
-        for (element in hudElements.reversed()) {
-            if (element.isEnabled && element is Element) {
-                if (element.mouseClicked(mouseX, mouseY, button)) {
-                    return true
-                }
-            }
-        }
-        return false
+        val element = hitIndex.elementAt(mouseX, mouseY)
+        return element != null && element.isEnabled && element is Element && element.mouseClicked(mouseX, mouseY, button)
     }
 }
\ No newline at end of file
@@ -0,0 +1,207 @@
+package code.cinnamon.hud
+
+import net.minecraft.client.MinecraftClient
+import net.minecraft.client.gui.DrawContext
+import net.minecraft.text.Text
+import java.io.File
+import java.lang.management.ManagementFactory
+import java.nio.file.Paths
+import java.time.LocalDateTime
+import java.time.format.DateTimeFormatter
+
+/**
+ * Records per-element HUD cost (time, GUI elements submitted, bytes allocated) into fixed-size
+ * ring buffers while enabled, and can draw p50/p99 figures as an overlay or dump them to a file.
+ * Draw counts come from the GuiRenderState mixin, which reports every element submitted.
+ */
+object HudProfiler {
+    private const val SAMPLES = 256
+    private const val OVERLAY_REFRESH_FRAMES = 20
+    private const val FRAME_SLOT_NAME = "main_hud_renderer"
+
+    private class Series(val name: String) {
+        val nanos = LongArray(SAMPLES)
+        val bytes = LongArray(SAMPLES)
+        val simpleDraws = IntArray(SAMPLES)
+        val textDraws = IntArray(SAMPLES)
+        val itemDraws = IntArray(SAMPLES)
+        var head = 0
+        var size = 0
+
+        fun record(nanos: Long, bytes: Long, simple: Int, text: Int, item: Int) {
+            this.nanos[head] = nanos
+            this.bytes[head] = bytes
+            simpleDraws[head] = simple
+            textDraws[head] = text
+            itemDraws[head] = item
+            head = (head + 1) % SAMPLES
+            if (size < SAMPLES) size++
+        }
+
+        fun clear() {
+            head = 0
+            size = 0
+        }
+    }
+
+    private val threadMxBean = ManagementFactory.getThreadMXBean() as? com.sun.management.ThreadMXBean
+    private val series = ArrayList<Series>()
+    private val frameSeries = Series(FRAME_SLOT_NAME)
+    private var pendingNanos = LongArray(16)
+    private var pendingBytes = LongArray(16)
+    private val scratch = LongArray(SAMPLES)
+
+    var enabled = false
+        private set
+
+    // Incremented from the GuiRenderState mixin; read as deltas around each measured section.
+    @JvmField var simpleElementCount = 0
+    @JvmField var textElementCount = 0
+    @JvmField var itemElementCount = 0
+
+    private var sectionStartNanos = 0L
+    private var sectionStartBytes = 0L
+    private var sectionStartSimple = 0
+    private var sectionStartText = 0
+    private var sectionStartItem = 0
+    private var frameStartNanos = 0L
+    private var frameStartBytes = 0L
+    private var frameStartSimple = 0
+    private var frameStartText = 0
+    private var frameStartItem = 0
+
+    private var overlayLines: Array<Text> = emptyArray()
+    private var framesSinceRefresh = OVERLAY_REFRESH_FRAMES
+
+    fun setEnabled(value: Boolean) {
+        if (enabled == value) return
+        enabled = value
+        series.forEach { it.clear() }
+        frameSeries.clear()
+        overlayLines = emptyArray()
+        framesSinceRefresh = OVERLAY_REFRESH_FRAMES
+    }
+
+    fun toggle() = setEnabled(!enabled)
+
+    fun currentThreadAllocatedBytes(): Long = threadMxBean?.currentThreadAllocatedBytes ?: 0L
+
+    internal fun register(element: HudElement): Int {
+        series.add(Series(element.getName()))
+        if (series.size > pendingNanos.size) {
+            pendingNanos = pendingNanos.copyOf(pendingNanos.size * 2)
+            pendingBytes = pendingBytes.copyOf(pendingBytes.size * 2)
+        }
+        return series.size - 1
+    }
+
+    fun beginFrame() {
+        if (!enabled) return
+        frameStartNanos = System.nanoTime()
+        frameStartBytes = currentThreadAllocatedBytes()
+        frameStartSimple = simpleElementCount
+        frameStartText = textElementCount
+        frameStartItem = itemElementCount
+    }
+
+    fun endFrame() {
+        if (!enabled) return
+        frameSeries.record(
+            System.nanoTime() - frameStartNanos,
+            currentThreadAllocatedBytes() - frameStartBytes,
+            simpleElementCount - frameStartSimple,
+            textElementCount - frameStartText,
+            itemElementCount - frameStartItem
+        )
+    }
+
+    /** Starts timing one element's layout or render section. */
+    internal fun beginSection() {
+        sectionStartSimple = simpleElementCount
+        sectionStartText = textElementCount
+        sectionStartItem = itemElementCount
+        sectionStartBytes = currentThreadAllocatedBytes()
+        sectionStartNanos = System.nanoTime()
+    }
+
+    /** Ends the layout section of [slot]; its cost is added to the following render section. */
+    internal fun endLayoutSection(slot: Int) {
+        if (slot < 0) return
+        pendingNanos[slot] = System.nanoTime() - sectionStartNanos
+        pendingBytes[slot] = currentThreadAllocatedBytes() - sectionStartBytes
+    }
+
+    internal fun endRenderSection(slot: Int) {
+        val nanos = System.nanoTime() - sectionStartNanos
+        val bytes = currentThreadAllocatedBytes() - sectionStartBytes
+        if (slot < 0 || slot >= series.size) return
+        series[slot].record(
+            nanos + pendingNanos[slot],
+            bytes + pendingBytes[slot],
+            simpleElementCount - sectionStartSimple,
+            textElementCount - sectionStartText,
+            itemElementCount - sectionStartItem
+        )
+    }
+
+    fun renderOverlay(context: DrawContext) {
+        if (!enabled) return
+        val mc = MinecraftClient.getInstance()
+
+        if (++framesSinceRefresh >= OVERLAY_REFRESH_FRAMES) {
+            framesSinceRefresh = 0
+            overlayLines = buildReport().map { Text.literal(it) }.toTypedArray()
+        }
+
+        val lineHeight = mc.textRenderer.fontHeight + 1
+        var width = 0
+        for (line in overlayLines) width = maxOf(width, mc.textRenderer.getWidth(line))
+        val x = mc.window.scaledWidth - width - 4
+        var y = 4
+        context.fill(x - 2, y - 2, x + width + 2, y + overlayLines.size * lineHeight + 1, 0xA0000000.toInt())
+        for (line in overlayLines) {
+            context.drawText(mc.textRenderer, line, x, y, 0xFFFFFFFF.toInt(), false)
+            y += lineHeight
+        }
+    }
+
+    /** Writes the current report to config/cinnamon/profiles and returns the file. */
+    fun dump(): File {
+        val dir = Paths.get("config", "cinnamon", "profiles").toFile()
+        dir.mkdirs()
+        val stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"))
+        val file = File(dir, "hud-profile-$stamp.txt")
+        file.writeText(buildReport().joinToString(System.lineSeparator()) + System.lineSeparator())
+        println("[HudProfiler] Profile written to ${file.absolutePath}")
+        return file
+    }
+
+    private fun buildReport(): List<String> {
+        val lines = ArrayList<String>()
+        lines.add("HUD Profiler (${SAMPLES} samples)  p50 / p99 us | draws s/t/i | alloc p50 B")
+        appendSeries(lines, frameSeries)
+        for (s in series) appendSeries(lines, s)
+        return lines
+    }
+
+    private fun appendSeries(lines: MutableList<String>, s: Series) {
+        if (s.size == 0) return
+        val p50 = percentile(s.nanos, s.size, 0.50) / 1000.0
+        val p99 = percentile(s.nanos, s.size, 0.99) / 1000.0
+        val bytes = percentile(s.bytes, s.size, 0.50)
+        val last = (s.head - 1 + SAMPLES) % SAMPLES
+        lines.add(
+            "%-18s %7.1f / %7.1f | %d/%d/%d | %d".format(
+                java.util.Locale.ROOT, s.name, p50, p99,
+                s.simpleDraws[last], s.textDraws[last], s.itemDraws[last], bytes
+            )
+        )
+    }
+
+    private fun percentile(values: LongArray, size: Int, fraction: Double): Long {
+        System.arraycopy(values, 0, scratch, 0, size)
+        java.util.Arrays.sort(scratch, 0, size)
+        val index = ((size - 1) * fraction).toInt().coerceIn(0, size - 1)
+        return scratch[index]
+    }
+}
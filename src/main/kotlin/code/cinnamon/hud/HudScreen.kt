@@ -1,5 +1,6 @@
 package code.cinnamon.hud
 
+import code.cinnamon.gui.utils.StyledTextCache
 import code.cinnamon.gui.CinnamonGuiManager
 import code.cinnamon.gui.CinnamonScreen
 import code.cinnamon.gui.theme.CinnamonTheme
@@ -37,8 +38,7 @@ class HudScreen : CinnamonScreen(Text.literal("HUD Editor").setStyle(Style.EMPTY
     override fun renderContent(context: DrawContext, scaledMouseX: Int, scaledMouseY: Int, delta: Float) {
         HudManager.render(context, delta)
 
-        val instructionText = Text.literal("Drag elements to move them - Scroll on elements to scale them")
-            .setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont()))
+        val instructionText = StyledTextCache.get("Drag elements to move them - Scroll on elements to scale them")
 
         context.drawCenteredTextWithShadow(
             textRenderer,
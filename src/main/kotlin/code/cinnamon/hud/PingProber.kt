@@ -0,0 +1,153 @@
+package code.cinnamon.hud
+
+import code.cinnamon.events.CinnamonEvents
+import code.cinnamon.util.PacketHandlerAPI
+import net.minecraft.client.MinecraftClient
+import net.minecraft.network.packet.c2s.query.QueryPingC2SPacket
+import java.util.concurrent.atomic.AtomicReference
+import kotlin.math.abs
+
+/**
+ * Measures round-trip time with the protocol's ping query packets instead of the tab-list latency,
+ * which the server refreshes every few seconds and averages. Each probe carries its send time in
+ * nanoseconds as the payload, so a response is matched against the outstanding probes and the
+ * vanilla debug-chart pings pass through untouched.
+ *
+ * Probing only runs while an element keeps calling [keepAlive]; [stats] changes once per sample.
+ */
+object PingProber {
+    data class Stats(
+        val version: Long = 0L,
+        val currentMs: Double = 0.0,
+        val minMs: Double = 0.0,
+        val avgMs: Double = 0.0,
+        val jitterMs: Double = 0.0,
+        val lossPercent: Double = 0.0
+    )
+
+    private const val WINDOW = 64
+    private const val MAX_PENDING = 8
+    private const val TIMEOUT_NANOS = 2_000_000_000L
+    private const val KEEP_ALIVE_NANOS = 1_000_000_000L
+    private const val LOST = -1L
+
+    // Outcome of the last WINDOW probes: RTT in nanoseconds, or LOST.
+    private val samples = LongArray(WINDOW)
+    private var head = 0
+    private var count = 0
+
+    private val pending = LongArray(MAX_PENDING)
+    private val lock = Any()
+
+    private val current = AtomicReference(Stats())
+    private var intervalNanos = 500_000_000L
+    private var lastSendNanos = 0L
+    @Volatile private var lastKeepAliveNanos = 0L
+
+    fun init() {
+        CinnamonEvents.TICK.subscribe(CinnamonEvents.TickListener { client -> tick(client) })
+    }
+
+    fun stats(): Stats = current.get()
+
+    /** Keeps probing active at the given interval; called by the consuming element each frame. */
+    fun keepAlive(intervalMs: Double) {
+        intervalNanos = (intervalMs * 1_000_000.0).toLong()
+        lastKeepAliveNanos = System.nanoTime()
+    }
+
+    private fun tick(client: MinecraftClient) {
+        val now = System.nanoTime()
+        val handler = client.networkHandler
+        if (handler == null) {
+            reset()
+            return
+        }
+
+        expirePending(now)
+        if (now - lastKeepAliveNanos > KEEP_ALIVE_NANOS) return
+        if (now - lastSendNanos < intervalNanos) return
+        // Probes queued behind the packet handler's hold would report the hold time, not latency.
+        if (PacketHandlerAPI.isGuiPacketBlocking()) return
+
+        synchronized(lock) {
+            val slot = pending.indexOf(0L)
+            if (slot < 0) return
+            pending[slot] = now
+        }
+        lastSendNanos = now
+        handler.sendPacket(QueryPingC2SPacket(now))
+    }
+
+    /** Returns true if [payload] answers one of our probes, in which case the packet is consumed. */
+    fun onPingResult(payload: Long): Boolean {
+        if (payload == 0L) return false
+        val now = System.nanoTime()
+        synchronized(lock) {
+            val slot = pending.indexOf(payload)
+            if (slot < 0) return false
+            pending[slot] = 0L
+            record(now - payload)
+        }
+        return true
+    }
+
+    private fun expirePending(now: Long) {
+        synchronized(lock) {
+            for (i in pending.indices) {
+                if (pending[i] != 0L && now - pending[i] > TIMEOUT_NANOS) {
+                    pending[i] = 0L
+                    record(LOST)
+                }
+            }
+        }
+    }
+
+    private fun reset() {
+        synchronized(lock) {
+            if (count == 0 && pending.all { it == 0L }) return
+            pending.fill(0L)
+            head = 0
+            count = 0
+            current.set(Stats(version = current.get().version + 1))
+        }
+    }
+
+    // Called with the lock held; recomputes the window figures once per sample.
+    private fun record(rtt: Long) {
+        samples[head] = rtt
+        head = (head + 1) % WINDOW
+        if (count < WINDOW) count++
+
+        var received = 0
+        var sum = 0L
+        var min = Long.MAX_VALUE
+        var jitterSum = 0L
+        var jitterPairs = 0
+        var previous = LOST
+        for (age in count - 1 downTo 0) {
+            val sample = samples[(head - 1 - age + WINDOW) % WINDOW]
+            if (sample == LOST) continue
+            received++
+            sum += sample
+            if (sample < min) min = sample
+            if (previous != LOST) {
+                jitterSum += abs(sample - previous)
+                jitterPairs++
+            }
+            previous = sample
+        }
+
+        val latest = if (rtt == LOST) current.get().currentMs else rtt / 1_000_000.0
+        current.set(
+            Stats(
+                version = current.get().version + 1,
+                currentMs = latest,
+                minMs = if (received > 0) min / 1_000_000.0 else 0.0,
+                avgMs = if (received > 0) sum / received / 1_000_000.0 else 0.0,
+                jitterMs = if (jitterPairs > 0) jitterSum / jitterPairs / 1_000_000.0 else 0.0,
+                lossPercent = (count - received) * 100.0 / count
+            )
+        )
+    }
+}
@@ -1,162 +1,160 @@
 package code.cinnamon.hud.elements
 
+import code.cinnamon.gui.utils.StyledTextCache
 import code.cinnamon.gui.theme.CinnamonTheme
+import code.cinnamon.gui.utils.GraphicsUtils
+import code.cinnamon.gui.utils.QuadBatch
+import code.cinnamon.hud.HudData
 import code.cinnamon.hud.HudElement
+import code.cinnamon.hud.HudManager
+import code.cinnamon.hud.HudSnapshot
+import code.cinnamon.modules.ModeSetting
 import net.minecraft.client.MinecraftClient
 import net.minecraft.client.gui.DrawContext
 import net.minecraft.item.ItemStack
 import net.minecraft.text.Style
 import net.minecraft.text.Text
-import net.minecraft.entity.EquipmentSlot
 
 class ArmorHudElement(x: Float, y: Float) : HudElement(x, y) {
     private val mc = MinecraftClient.getInstance()
     private val cornerRadius = 2
     private val padding = 1
+    private val itemSize = 16
 
-    override fun renderElement(context: DrawContext, tickDelta: Float) {
-        if (!isEnabled || mc.player == null) return
+    private val durabilityDisplaySetting = ModeSetting("Durability Display", "Value", listOf("Value", "Percentage", "Bar"))
 
-        context.matrices.pushMatrix()
-        context.matrices.translate(getX(), getY(), context.matrices)
-        context.matrices.scale(this.scale, this.scale, context.matrices)
+    init {
+        settings.add(durabilityDisplaySetting)
+    }
 
-        val armorSlotsInDisplayOrder = listOf(
-            EquipmentSlot.HEAD,
-            EquipmentSlot.CHEST,
-            EquipmentSlot.LEGS,
-            EquipmentSlot.FEET
-        )
+    private var appliedArmor: List<ItemStack>? = null
+    private var rowCount = 0
+    private val rowStacks = Array<ItemStack>(HudSnapshot.ARMOR_SLOTS.size) { ItemStack.EMPTY }
+    private val rowTexts = arrayOfNulls<Text>(HudSnapshot.ARMOR_SLOTS.size)
+    private val rowBarFill = IntArray(HudSnapshot.ARMOR_SLOTS.size)
+    private val rowBarColor = IntArray(HudSnapshot.ARMOR_SLOTS.size)
+
+    override fun hasContentChanged(): Boolean {
+        val snapshot = HudData.snapshot()
+        val armor = if (snapshot.hasPlayer) snapshot.armor else null
+        return armor !== appliedArmor
+    }
 
-        var currentRelativeY = 0
+    override fun rebuildContent() {
+        val snapshot = HudData.snapshot()
+        val armor = if (snapshot.hasPlayer) snapshot.armor else null
+        appliedArmor = armor
+        rowCount = 0
+        if (armor == null) return
 
-        for (slot in armorSlotsInDisplayOrder) {
-            val itemStack = mc.player!!.getEquippedStack(slot)
+        val mode = durabilityDisplaySetting.value
+        for (itemStack in armor) {
             if (itemStack.isEmpty) continue
+            val row = rowCount++
+            rowStacks[row] = itemStack
 
-            val itemRenderHeight = 16
-            val textFontHeight = mc.textRenderer.fontHeight
-
-            val singleItemRowHeight = itemRenderHeight
-
-            drawRoundedBackground(
-                context,
-                0,
-                currentRelativeY,
-                getWidth(),
-                singleItemRowHeight,
-                this.backgroundColor
-            )
-
-            context.drawItem(itemStack, padding, currentRelativeY + (singleItemRowHeight - 16) / 2)
-
-            val durability = itemStack.maxDamage - itemStack.damage
             val maxDurability = itemStack.maxDamage
-            val durabilityText = if (maxDurability > 0) {
-                Text.literal("$durability/$maxDurability").setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont()))
-            } else {
-                Text.literal("").setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont()))
-            }
-
-            val textX = padding + 16 + padding
-
-            val textDrawY = currentRelativeY + (singleItemRowHeight - textFontHeight) / 2
-
-            if (this.textShadowEnabled) {
-                context.drawText(mc.textRenderer, durabilityText, textX + 1, textDrawY + 1, 0x40000000, false)
+            val durability = maxDurability - itemStack.damage
+            rowBarFill[row] = 0
+            rowBarColor[row] = 0
+            rowTexts[row] = when {
+                maxDurability <= 0 -> null
+                mode == "Percentage" -> StyledTextCache.get("${durability * 100 / maxDurability}%")
+                mode == "Bar" -> {
+                    rowBarFill[row] = (BAR_WIDTH * durability / maxDurability).coerceIn(0, BAR_WIDTH)
+                    rowBarColor[row] = 0xFF000000.toInt() or itemStack.itemBarColor
+                    null
+                }
+                else -> StyledTextCache.get("$durability/$maxDurability")
             }
-            context.drawText(mc.textRenderer, durabilityText, textX, textDrawY, this.textColor, false)
-
-            currentRelativeY += singleItemRowHeight + padding
         }
-        context.matrices.popMatrix()
-    }
-
-    private fun drawRoundedBackground(context: DrawContext, x: Int, y: Int, width: Int, height: Int, backgroundColor: Int) {
-        drawRoundedRect(context, x, y, width, height, cornerRadius, backgroundColor)
+        for (row in rowCount until rowStacks.size) {
+            rowStacks[row] = ItemStack.EMPTY
+            rowTexts[row] = null
+        }
     }
 
-    private fun drawRoundedRect(context: DrawContext, x: Int, y: Int, width: Int, height: Int, radius: Int, color: Int) {
-        if (color == 0) return
+    override fun renderElement(context: DrawContext, tickDelta: Float) {
+        if (!isEnabled || rowCount == 0) return
 
-        val r = java.lang.Math.min(radius, java.lang.Math.min(width / 2, height / 2))
+        context.matrices.pushMatrix()
+        context.matrices.translate(getX(), getY(), context.matrices)
+        context.matrices.scale(this.scale, this.scale, context.matrices)
 
-        if (r <= 0) {
-            context.fill(x, y, x + width, y + height, color)
-            return
-        }
+        val textFontHeight = mc.textRenderer.fontHeight
+        val contentX = padding + itemSize + padding
+        val showBar = durabilityDisplaySetting.value == "Bar"
+        var currentRelativeY = 0
 
-        context.fill(x + r, y, x + width - r, y + height, color)
-        context.fill(x, y + r, x + r, y + height - r, color)
-        context.fill(x + width - r, y + r, x + width, y + height - r, color)
+        for (row in 0 until rowCount) {
+            GraphicsUtils.drawFilledRoundedRect(
+                context,
+                0,
+                currentRelativeY,
+                measuredWidth,
+                itemSize,
+                cornerRadius,
+                this.backgroundColor
+            )
 
-        drawRoundedCorner(context, x, y, r, color, 0)
-        drawRoundedCorner(context, x + width - r, y, r, color, 1)
-        drawRoundedCorner(context, x, y + height - r, r, color, 2)
-        drawRoundedCorner(context, x + width - r, y + height - r, r, color, 3)
-    }
+            context.drawItem(rowStacks[row], padding, currentRelativeY)
 
-    private fun drawRoundedCorner(context: DrawContext, x: Int, y: Int, radius: Int, color: Int, corner: Int) {
-        for (dy in 0 until radius) {
-            for (dx in 0 until radius) {
-                val distanceSquared = dx * dx + dy * dy
-                if (distanceSquared <= radius * radius) {
-                    val pixelX: Int
-                    val pixelY: Int
-
-                    when (corner) {
-                        0 -> {
-                            pixelX = x + (radius - 1 - dx)
-                            pixelY = y + (radius - 1 - dy)
-                        }
-                        1 -> {
-                            pixelX = x + dx
-                            pixelY = y + (radius - 1 - dy)
-                        }
-                        2 -> {
-                            pixelX = x + (radius - 1 - dx)
-                            pixelY = y + dy
-                        }
-                        3 -> {
-                            pixelX = x + dx
-                            pixelY = y + dy
-                        }
-                        else -> continue
+            if (!showBar) {
+                val durabilityText = rowTexts[row]
+                if (durabilityText != null) {
+                    val textDrawY = currentRelativeY + (itemSize - textFontHeight) / 2
+                    if (this.textShadowEnabled) {
+                        context.drawText(mc.textRenderer, durabilityText, contentX + 1, textDrawY + 1, 0x40000000, false)
                     }
-                    context.fill(pixelX, pixelY, pixelX + 1, pixelY + 1, color)
+                    context.drawText(mc.textRenderer, durabilityText, contentX, textDrawY, this.textColor, false)
                 }
             }
+
+            currentRelativeY += itemSize + padding
         }
+        if (showBar) {
+            drawDurabilityBars(context, contentX, (itemSize - BAR_HEIGHT) / 2, itemSize + padding, rowBarFill, rowBarColor, rowCount)
+        }
+        context.matrices.popMatrix()
     }
 
+
     override fun getWidth(): Int {
-        val iconWidth = 16
-        val exampleDurabilityText = Text.literal("000/000").setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont()))
-        val textWidth = mc.textRenderer.getWidth(exampleDurabilityText)
-        val contentWidth = iconWidth + padding + textWidth
-        return contentWidth + padding * 2
+        val contentWidth = when (durabilityDisplaySetting.value) {
+            "Percentage" -> StyledTextCache.width("100%")
+            "Bar" -> BAR_WIDTH
+            else -> StyledTextCache.width("000/000")
+        }
+        return itemSize + padding + contentWidth + padding * 2
     }
 
     override fun getHeight(): Int {
-        if (mc.player == null) return 0
-
-        val armorSlots = listOf(EquipmentSlot.HEAD, EquipmentSlot.CHEST, EquipmentSlot.LEGS, EquipmentSlot.FEET)
-        val equippedArmorItems = armorSlots.mapNotNull { slot ->
-            val stack = mc.player!!.getEquippedStack(slot)
-            if (stack.isEmpty) null else stack
-        }
-
-        if (equippedArmorItems.isEmpty()) return 0
-
-        val itemHeight = 16
-        val textHeight = mc.textRenderer.fontHeight
-
-        val singleElementHeight = itemHeight + textHeight + padding / 2
-
-        val contentStackHeight = (itemHeight * equippedArmorItems.size) + (padding * (equippedArmorItems.size - 1).coerceAtLeast(0))
+        if (rowCount == 0) return 0
+        val contentStackHeight = (itemSize * rowCount) + (padding * (rowCount - 1))
         return contentStackHeight + padding * 2
     }
 
     override fun getName(): String = "Armor"
     override val description: String = "Displays your currently equipped armor"
+
+    companion object {
+        const val BAR_WIDTH = 28
+        const val BAR_HEIGHT = 3
+
+        /**
+         * The "Bar" durability readouts of the first [rows] rows, submitted as a single element;
+         * [fills] are filled widths out of [BAR_WIDTH], and row n sits at y + n * [rowStep].
+         */
+        fun drawDurabilityBars(context: DrawContext, x: Int, y: Int, rowStep: Int, fills: IntArray, colors: IntArray, rows: Int) {
+            QuadBatch.draw(context) {
+                for (row in 0 until rows) {
+                    val barY = y + row * rowStep
+                    QuadBatch.fill(x, barY, x + BAR_WIDTH, barY + BAR_HEIGHT, 0xFF000000.toInt())
+                    if (fills[row] > 0) {
+                        QuadBatch.fill(x, barY, x + fills[row], barY + BAR_HEIGHT, colors[row])
+                    }
+                }
+            }
+        }
+    }
 }
@@ -1,8 +1,17 @@
 package code.cinnamon.hud.elements
 
+import code.cinnamon.gui.utils.ReadoutText
+import code.cinnamon.gui.utils.StyledTextCache
 import code.cinnamon.gui.CinnamonScreen
 import code.cinnamon.gui.theme.CinnamonTheme
+import code.cinnamon.gui.utils.FixedPointFormatter
+import code.cinnamon.gui.utils.GraphicsUtils
+import code.cinnamon.gui.utils.QuadBatch
+import code.cinnamon.hud.FrameTimeTracker
+import code.cinnamon.hud.HudData
 import code.cinnamon.hud.HudElement
+import code.cinnamon.hud.HudManager
+import code.cinnamon.modules.ModeSetting
 import net.minecraft.client.MinecraftClient
 import net.minecraft.client.gui.DrawContext
 import net.minecraft.text.Style
@@ -13,6 +22,56 @@ class FpsHudElement(x: Float, y: Float) : HudElement(x, y) {
     private val mc = MinecraftClient.getInstance()
     private val cornerRadius = 6
     private val internalPadding = 6
+    private val graphGap = 3
+    private val statsRefreshMs = 250L
+
+    private val displaySetting = ModeSetting("Display", "FPS", listOf("FPS", "Frame Time"))
+
+    init {
+        settings.add(displaySetting)
+    }
+
+    private var cachedFps = -1
+    private var fpsText: Text = Text.empty()
+    private var fpsTextWidth = 0
+
+    private val maxFormatter = FixedPointFormatter(1)
+    private val statsReadout = ReadoutText()
+    private val maxReadout = ReadoutText()
+    private var statsWidth = 0
+    private var lastStatsUpdate = 0L
+
+    private fun frameTimeMode(): Boolean = displaySetting.value == "Frame Time"
+
+    override fun hasContentChanged(): Boolean {
+        if (frameTimeMode()) return System.currentTimeMillis() - lastStatsUpdate >= statsRefreshMs
+        return HudData.snapshot().fps != cachedFps
+    }
+
+    override fun rebuildContent() {
+        if (frameTimeMode()) {
+            rebuildFrameTimeStats()
+            return
+        }
+        cachedFps = HudData.snapshot().fps
+        val label = "$cachedFps Fps"
+        fpsText = StyledTextCache.get(label)
+        fpsTextWidth = StyledTextCache.width(label)
+    }
+
+    private fun rebuildFrameTimeStats() {
+        lastStatsUpdate = System.currentTimeMillis()
+        val avg = toFps(FrameTimeTracker.averageNanos())
+        val low1 = toFps(FrameTimeTracker.slowestFractionNanos(0.01))
+        val low01 = toFps(FrameTimeTracker.slowestFractionNanos(0.001))
+        maxFormatter.update(FrameTimeTracker.maxNanos() / 1_000_000.0, "Max: ", " ms")
+
+        statsReadout.update("Avg: $avg  1%: $low1  0.1%: $low01")
+        maxReadout.update(maxFormatter.string)
+        statsWidth = maxOf(statsReadout.width, maxReadout.width, GRAPH_SAMPLES)
+    }
+
+    private fun toFps(nanos: Long): Int = if (nanos <= 0L) 0 else (1_000_000_000L / nanos).toInt()
 
     override fun renderElement(context: DrawContext, tickDelta: Float) {
         if (!isEnabled) return
@@ -21,93 +80,77 @@ class FpsHudElement(x: Float, y: Float) : HudElement(x, y) {
         context.matrices.translate(getX(), getY(), context.matrices)
         context.matrices.scale(this.scale, this.scale, context.matrices)
 
-        val currentFps = mc.currentFps
-
         if (backgroundColor != 0) {
-            drawRoundedBackground(
+            GraphicsUtils.drawFilledRoundedRect(
                 context,
                 -internalPadding,
                 -internalPadding,
-                getWidth() + internalPadding * 2,
-                getHeight() + internalPadding * 2,
+                measuredWidth + internalPadding * 2,
+                measuredHeight + internalPadding * 2,
+                cornerRadius,
                 this.backgroundColor
             )
         }
 
-        val fpsText = Text.literal("$currentFps Fps").setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont()))
-
-        if (this.textShadowEnabled) {
-            context.drawText(mc.textRenderer, fpsText, 1, 1, 0x40000000, false)
+        if (frameTimeMode()) {
+            renderFrameTime(context)
+        } else {
+            if (this.textShadowEnabled) {
+                context.drawText(mc.textRenderer, fpsText, 1, 1, 0x40000000, false)
+            }
+            context.drawText(mc.textRenderer, fpsText, 0, 0, this.textColor, false)
         }
-        context.drawText(mc.textRenderer, fpsText, 0, 0, this.textColor, false)
         context.matrices.popMatrix()
     }
 
-    private fun drawRoundedBackground(context: DrawContext, x: Int, y: Int, width: Int, height: Int, backgroundColor: Int) {
-        drawRoundedRect(context, x, y, width, height, cornerRadius, backgroundColor)
-    }
-
-    private fun drawRoundedRect(context: DrawContext, x: Int, y: Int, width: Int, height: Int, radius: Int, color: Int) {
-        if (color == 0) return
-
-        val r = minOf(radius, minOf(width / 2, height / 2))
-
-        if (r <= 0) {
-            context.fill(x, y, x + width, y + height, color)
-            return
+    private fun renderFrameTime(context: DrawContext) {
+        val lineHeight = mc.textRenderer.fontHeight + 1
+        val statsText = statsReadout.text
+        val maxText = maxReadout.text
+        if (this.textShadowEnabled) {
+            context.drawText(mc.textRenderer, statsText, 1, 1, 0x40000000, false)
+            context.drawText(mc.textRenderer, maxText, 1, lineHeight + 1, 0x40000000, false)
         }
+        context.drawText(mc.textRenderer, statsText, 0, 0, this.textColor, false)
+        context.drawText(mc.textRenderer, maxText, 0, lineHeight, this.textColor, false)
 
-        context.fill(x + r, y, x + width - r, y + height, color)
+        drawFrameTimeGraph(context, lineHeight * 2 + graphGap)
+    }
 
-        context.fill(x, y + r, x + r, y + height - r, color)
-        context.fill(x + width - r, y + r, x + width, y + height - r, color)
+    override fun getWidth(): Int = if (frameTimeMode()) statsWidth else fpsTextWidth
 
-        drawRoundedCorner(context, x, y, r, color, 0)
-        drawRoundedCorner(context, x + width - r, y, r, color, 1)
-        drawRoundedCorner(context, x, y + height - r, r, color, 2)
-        drawRoundedCorner(context, x + width - r, y + height - r, r, color, 3)
+    override fun getHeight(): Int {
+        if (!frameTimeMode()) return mc.textRenderer.fontHeight
+        return (mc.textRenderer.fontHeight + 1) * 2 + graphGap + GRAPH_HEIGHT
     }
 
-    private fun drawRoundedCorner(context: DrawContext, x: Int, y: Int, radius: Int, color: Int, corner: Int) {
-        for (dy in 0 until radius) {
-            for (dx in 0 until radius) {
-                val distanceSquared = dx * dx + dy * dy
-                if (distanceSquared <= radius * radius) {
-                    val pixelX: Int
-                    val pixelY: Int
-
-                    when (corner) {
-                        0 -> {
-                            pixelX = x + (radius - 1 - dx)
-                            pixelY = y + (radius - 1 - dy)
-                        }
-                        1 -> {
-                            pixelX = x + dx
-                            pixelY = y + (radius - 1 - dy)
-                        }
-                        2 -> {
-                            pixelX = x + (radius - 1 - dx)
-                            pixelY = y + dy
-                        }
-                        3 -> {
-                            pixelX = x + dx
-                            pixelY = y + dy
-                        }
-                        else -> continue
-                    }
-
-                    context.fill(pixelX, pixelY, pixelX + 1, pixelY + 1, color)
+    override fun getName(): String = "FPS"
+    override val description: String = "Displays your current frames per second"
+
+    companion object {
+        const val GRAPH_SAMPLES = 120
+        const val GRAPH_HEIGHT = 20
+        private const val GRAPH_SCALE_NANOS = 33_333_333L
+
+        /** The frame-time strip at [top]; newest frame on the right, all submitted as a single element. */
+        fun drawFrameTimeGraph(context: DrawContext, top: Int) {
+            val bottom = top + GRAPH_HEIGHT
+            QuadBatch.draw(context) {
+                QuadBatch.fill(0, top, GRAPH_SAMPLES, bottom, 0x40000000)
+                for (age in 0 until GRAPH_SAMPLES) {
+                    val nanos = FrameTimeTracker.recent(age)
+                    if (nanos == 0L) break
+                    val barHeight = (nanos * GRAPH_HEIGHT / GRAPH_SCALE_NANOS).toInt().coerceIn(1, GRAPH_HEIGHT)
+                    val column = GRAPH_SAMPLES - 1 - age
+                    QuadBatch.fill(column, bottom - barHeight, column + 1, bottom, frameColor(nanos))
                 }
             }
         }
-    }
 
-    override fun getWidth(): Int {
-        val text = Text.literal("${mc.currentFps} Fps").setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont()))
-        return mc.textRenderer.getWidth(text)
+        private fun frameColor(nanos: Long): Int = when {
+            nanos <= 16_666_667L -> 0xFF4CAF50.toInt()
+            nanos <= 33_333_333L -> 0xFFFFC107.toInt()
+            else -> 0xFFF44336.toInt()
+        }
     }
-
-    override fun getHeight(): Int = mc.textRenderer.fontHeight
-    override fun getName(): String = "FPS"
-    override val description: String = "Displays your current frames per second"
 }
@@ -1,10 +1,13 @@
 package code.cinnamon.hud.elements
 
+import code.cinnamon.gui.utils.StyledTextCache
 import code.cinnamon.gui.CinnamonScreen
 import code.cinnamon.gui.theme.CinnamonTheme
 import code.cinnamon.gui.utils.GraphicsUtils
+import code.cinnamon.hud.HudData
 import code.cinnamon.hud.HudElement
-import code.cinnamon.hud.HudElementConfig
+import code.cinnamon.modules.ColorSetting
+import code.cinnamon.modules.Setting
 import net.minecraft.client.MinecraftClient
 import net.minecraft.client.gui.DrawContext
 import net.minecraft.text.Style
@@ -12,19 +15,23 @@ import net.minecraft.text.Text
 import kotlin.math.*
 
 class KeystrokesHudElement(x: Float, y: Float) : HudElement(x, y) {
-    var keypressedTextColor: Int = 0xFFFFFF
-    var keypressedBackgroundColor: Int = 0xFFFFFF
+    // Edited from the Keystrokes panel in ModulesScreen rather than the generic settings list.
+    private val keypressedTextColorSetting = ColorSetting("Pressed Text Color", 0xFFFFFF)
+    private val keypressedBackgroundColorSetting = ColorSetting("Pressed Background Color", 0xFFFFFF)
+    private val persistent: List<Setting<*>> = settings + listOf(keypressedTextColorSetting, keypressedBackgroundColorSetting)
+
+    var keypressedTextColor: Int
+        get() = keypressedTextColorSetting.colorValue
+        set(value) = keypressedTextColorSetting.set(value)
+    var keypressedBackgroundColor: Int
+        get() = keypressedBackgroundColorSetting.colorValue
+        set(value) = keypressedBackgroundColorSetting.set(value)
 
     private val mc = MinecraftClient.getInstance()
     private val keySize = 32
     private val spacing = 4
     private val cornerRadius = 4f
 
-    private var wPressed = false
-    private var aPressed = false
-    private var sPressed = false
-    private var dPressed = false
-
     override fun renderElement(context: DrawContext, tickDelta: Float) {
         if (!isEnabled) return
 
@@ -32,23 +39,16 @@ class KeystrokesHudElement(x: Float, y: Float) : HudElement(x, y) {
         context.matrices.translate(getX(), getY(), context.matrices)
         context.matrices.scale(this.scale, this.scale, context.matrices)
 
-        updateKeyStates()
+        val snapshot = HudData.snapshot()
 
         val wX = keySize + spacing
-        drawKey(context, "W", wX, 0, wPressed)
-        drawKey(context, "A", 0, keySize + spacing, aPressed)
-        drawKey(context, "S", keySize + spacing, keySize + spacing, sPressed)
-        drawKey(context, "D", (keySize + spacing) * 2, keySize + spacing, dPressed)
+        drawKey(context, "W", wX, 0, snapshot.forwardPressed)
+        drawKey(context, "A", 0, keySize + spacing, snapshot.leftPressed)
+        drawKey(context, "S", keySize + spacing, keySize + spacing, snapshot.backPressed)
+        drawKey(context, "D", (keySize + spacing) * 2, keySize + spacing, snapshot.rightPressed)
         context.matrices.popMatrix()
     }
 
-    private fun updateKeyStates() {
-        wPressed = mc.options.forwardKey.isPressed
-        aPressed = mc.options.leftKey.isPressed
-        sPressed = mc.options.backKey.isPressed
-        dPressed = mc.options.rightKey.isPressed
-    }
-
     private fun drawKey(context: DrawContext, key: String, x: Int, y: Int, pressed: Boolean) {
         val currentBgColor = if (pressed) {
             this.keypressedBackgroundColor
@@ -58,14 +58,14 @@ class KeystrokesHudElement(x: Float, y: Float) : HudElement(x, y) {
 
         GraphicsUtils.drawFilledRoundedRect(context, x.toFloat(), y.toFloat(), keySize.toFloat(), keySize.toFloat(), cornerRadius, currentBgColor)
 
-        val keyText = Text.literal(key).setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont()))
+        val keyText = StyledTextCache.get(key)
         val currentTextColor = if (pressed) {
             this.keypressedTextColor
         } else {
             this.textColor
         }
 
-        val textWidth = mc.textRenderer.getWidth(keyText)
+        val textWidth = StyledTextCache.width(key)
         val textHeight = mc.textRenderer.fontHeight
         val textX = x + (keySize - textWidth) / 2
         val textY = y + (keySize - textHeight) / 2
@@ -81,29 +81,5 @@ class KeystrokesHudElement(x: Float, y: Float) : HudElement(x, y) {
     override fun getName(): String = "Keystrokes"
     override val description: String = "Displays your movement keystrokes"
 
-    fun toConfig(): HudElementConfig = HudElementConfig(
-        name = getName(),
-        x = getX(),
-        y = getY(),
-        scale = scale,
-        isEnabled = isEnabled,
-        textColor = textColor,
-        backgroundColor = backgroundColor,
-        textShadowEnabled = textShadowEnabled,
-        keypressedTextColor = keypressedTextColor,
-        keypressedBackgroundColor = keypressedBackgroundColor,
-    )
-
-    fun applyConfig(config: HudElementConfig) {
-        setX(config.x)
-        setY(config.y)
-        scale = config.scale
-        isEnabled = config.isEnabled
-        textColor = config.textColor
-        backgroundColor = config.backgroundColor
-        textShadowEnabled = config.textShadowEnabled
-
-        config.keypressedTextColor?.let { keypressedTextColor = it }
-        config.keypressedBackgroundColor?.let { keypressedBackgroundColor = it }
-    }
+    override fun persistentSettings(): List<Setting<*>> = persistent
 }
@@ -1,25 +1,19 @@
 package code.cinnamon.hud.elements
 
 import code.cinnamon.gui.theme.CinnamonTheme
+import code.cinnamon.gui.utils.FixedPointFormatter
+import code.cinnamon.gui.utils.GraphicsUtils
 import code.cinnamon.hud.HudElement
 import code.cinnamon.hud.HudManager
 import net.minecraft.client.MinecraftClient
 import net.minecraft.client.gui.DrawContext
 import net.minecraft.text.Style
 import net.minecraft.text.Text
-import net.minecraft.util.hit.BlockHitResult
-import net.minecraft.util.hit.EntityHitResult
-import net.minecraft.util.hit.HitResult
-import net.minecraft.util.math.Vec3d
-import net.minecraft.util.math.BlockPos
-import net.minecraft.world.RaycastContext
+import net.minecraft.util.Identifier
 import code.cinnamon.modules.BooleanSetting
-import kotlin.math.sqrt
 
 class LookAtHudElement(x: Float, y: Float) : HudElement(x, y) {
-    private val showNameSetting = BooleanSetting("Show Name", true) {
-        HudManager.saveHudConfig()
-    }
+    private val showNameSetting = BooleanSetting("Show Name", true)
 
     init {
         settings.add(showNameSetting)
@@ -29,25 +23,32 @@ class LookAtHudElement(x: Float, y: Float) : HudElement(x, y) {
 
 
     private var cachedText: Text? = null
+    private var cachedFont: Identifier? = null
     private var cachedWidth: Int = 0
     private var cachedHeight: Int = 0
-    private var lastUpdateTime: Long = 0
 
 
-    private val updateInterval = 50L
     private val decimalPlaces = 2
+    private val distanceFormatter = FixedPointFormatter(decimalPlaces)
     private val maxRaycastDistance = 1000.0
 
-    override fun renderElement(context: DrawContext, tickDelta: Float) {
-        if (!isEnabled) return
+    private var appliedResult: LookAtRaycaster.Result? = null
+
+    override fun hasContentChanged(): Boolean {
+        val world = mc.world
+        val player = mc.player
+        if (world == null || player == null) return cachedText != null
+        LookAtRaycaster.request(world, player, maxRaycastDistance)
+        return LookAtRaycaster.latestResult() !== appliedResult
+    }
 
-        val currentTime = System.currentTimeMillis()
-        val shouldUpdate = currentTime - lastUpdateTime > updateInterval
+    override fun rebuildContent() {
+        updateCachedData()
+        appliedResult = LookAtRaycaster.latestResult()
+    }
 
-        if (shouldUpdate) {
-            updateCachedData()
-            lastUpdateTime = currentTime
-        }
+    override fun renderElement(context: DrawContext, tickDelta: Float) {
+        if (!isEnabled) return
 
         val textToRender = cachedText ?: return
 
@@ -57,12 +58,13 @@ class LookAtHudElement(x: Float, y: Float) : HudElement(x, y) {
 
 
         if (backgroundColor != 0) {
-            drawRoundedBackground(
+            GraphicsUtils.drawFilledRoundedRect(
                 context,
                 -2,
                 -2,
                 cachedWidth + 4,
                 cachedHeight + 4,
+                6,
                 backgroundColor
             )
         }
@@ -81,180 +83,43 @@ class LookAtHudElement(x: Float, y: Float) : HudElement(x, y) {
         val world = mc.world
 
         if (player == null || world == null) {
-            cachedText = null
-            cachedWidth = 0
-            cachedHeight = 0
+            LookAtRaycaster.clear()
+            clearCachedText()
             return
         }
 
-
-        val eyePos = player.getCameraPosVec(1.0f)
-        val lookVec = player.getRotationVec(1.0f)
-        val endPos = eyePos.add(lookVec.multiply(maxRaycastDistance))
-
-        val blockHitResult = world.raycast(RaycastContext(
-            eyePos,
-            endPos,
-            RaycastContext.ShapeType.OUTLINE,
-            RaycastContext.FluidHandling.NONE,
-            player
-        ))
-
-        val entityHitResult = raycastEntities(eyePos, endPos, player)
-
-        val text = when {
-            entityHitResult != null && (blockHitResult.type == HitResult.Type.MISS ||
-                    eyePos.squaredDistanceTo(entityHitResult.entity.pos) < eyePos.squaredDistanceTo(blockHitResult.pos)) -> {
-                val distance = calculateEntityDistance(eyePos, entityHitResult.entity.pos)
-                val entityName = entityHitResult.entity.displayName?.string ?: "Entity"
-                if (showNameSetting.value) {
-                    Text.literal("$entityName: ${formatDistance(distance)}")
-                } else {
-                    Text.literal(formatDistance(distance))
-                }
-            }
-            blockHitResult.type != HitResult.Type.MISS -> {
-                val distance = calculateBlockDistance(eyePos, blockHitResult.blockPos)
-                val blockName = getBlockName(blockHitResult.blockPos)
-                if (showNameSetting.value) {
-                    Text.literal("$blockName: ${formatDistance(distance)}")
-                } else {
-                    Text.literal(formatDistance(distance))
-                }
-            }
-            else -> null
-        }
-
-        if (text != null) {
-            cachedText = text.setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont()))
-            cachedWidth = mc.textRenderer.getWidth(cachedText)
-            cachedHeight = mc.textRenderer.fontHeight
-        } else {
-            cachedText = null
-            cachedWidth = 0
-            cachedHeight = 0
-        }
-    }
-
-    private fun raycastEntities(start: Vec3d, end: Vec3d, player: net.minecraft.entity.player.PlayerEntity): EntityHitResult? {
-        val world = mc.world ?: return null
-        var closestEntity: net.minecraft.entity.Entity? = null
-        var closestDistance = Double.MAX_VALUE
-
-        val box = net.minecraft.util.math.Box(start, end)
-        val entities = world.getOtherEntities(player, box)
-
-        for (entity in entities) {
-            val entityBox = entity.boundingBox.expand(0.3)
-            val hitResult = entityBox.raycast(start, end)
-
-            if (hitResult.isPresent) {
-                val distance = start.squaredDistanceTo(hitResult.get())
-                if (distance < closestDistance) {
-                    closestDistance = distance
-                    closestEntity = entity
-                }
-            }
-        }
-
-        return if (closestEntity != null) {
-            EntityHitResult(closestEntity)
-        } else {
-            null
-        }
-    }
-
-    private fun calculateBlockDistance(playerPos: Vec3d, blockPos: BlockPos): Double {
-        return sqrt(playerPos.squaredDistanceTo(Vec3d.ofCenter(blockPos)))
-    }
-
-    private fun calculateEntityDistance(playerPos: Vec3d, entityPos: Vec3d): Double {
-        return sqrt(playerPos.squaredDistanceTo(entityPos))
-    }
-
-    private fun getBlockName(blockPos: BlockPos): String {
-        val world = mc.world ?: return "Unknown"
-        val blockState = world.getBlockState(blockPos)
-        return blockState.block.translationKey.let { key ->
-            val displayName = Text.translatable(key).string
-            if (displayName.contains("block.minecraft.")) {
-                displayName.substringAfter("block.minecraft.")
-                    .replace("_", " ")
-                    .split(" ")
-                    .joinToString(" ") { it.capitalize() }
-            } else {
-                displayName
-            }
+        LookAtRaycaster.request(world, player, maxRaycastDistance)
+        val result = LookAtRaycaster.latestResult()
+        if (result == null) {
+            clearCachedText()
+            return
         }
-    }
 
-    private fun formatDistance(distance: Double): String {
-        return when {
-            distance < 1000.0 -> String.format("%.${decimalPlaces}f blocks", distance)
-            else -> String.format("%.${decimalPlaces}fk blocks", distance / 1000.0)
+        val changed = updateDistance(result.distance, if (showNameSetting.booleanValue) "${result.name}: " else "")
+        val font = CinnamonTheme.getCurrentFont()
+        if (changed || cachedText == null || font != cachedFont) {
+            val text = Text.literal(distanceFormatter.string).setStyle(Style.EMPTY.withFont(font))
+            cachedText = text
+            cachedFont = font
+            cachedWidth = mc.textRenderer.getWidth(text)
         }
+        cachedHeight = mc.textRenderer.fontHeight
     }
 
-    private fun drawRoundedBackground(context: DrawContext, x: Int, y: Int, width: Int, height: Int, backgroundColor: Int) {
-        drawRoundedRect(context, x, y, width, height, 6, backgroundColor)
+    private fun clearCachedText() {
+        cachedText = null
+        cachedWidth = 0
+        cachedHeight = 0
     }
 
-    private fun drawRoundedRect(context: DrawContext, x: Int, y: Int, width: Int, height: Int, radius: Int, color: Int) {
-        if (color == 0) return
-
-        val r = minOf(radius, minOf(width / 2, height / 2))
-        if (r <= 0) {
-            context.fill(x, y, x + width, y + height, color)
-            return
+    private fun updateDistance(distance: Double, prefix: String): Boolean {
+        return if (distance < 1000.0) {
+            distanceFormatter.update(distance, prefix, " blocks")
+        } else {
+            distanceFormatter.update(distance / 1000.0, prefix, "k blocks")
         }
-
-        context.fill(x + r, y, x + width - r, y + height, color)
-        context.fill(x, y + r, x + r, y + height - r, color)
-        context.fill(x + width - r, y + r, x + width, y + height - r, color)
-
-
-        drawRoundedCorner(context, x, y, r, color, Corner.TOP_LEFT)
-        drawRoundedCorner(context, x + width - r, y, r, color, Corner.TOP_RIGHT)
-        drawRoundedCorner(context, x, y + height - r, r, color, Corner.BOTTOM_LEFT)
-        drawRoundedCorner(context, x + width - r, y + height - r, r, color, Corner.BOTTOM_RIGHT)
     }
 
-    private enum class Corner {
-        TOP_LEFT, TOP_RIGHT, BOTTOM_LEFT, BOTTOM_RIGHT
-    }
-
-    private fun drawRoundedCorner(context: DrawContext, x: Int, y: Int, radius: Int, color: Int, corner: Corner) {
-        val radiusSquared = radius * radius
-
-        for (dy in 0 until radius) {
-            for (dx in 0 until radius) {
-                val distanceSquared = dx * dx + dy * dy
-                if (distanceSquared <= radiusSquared) {
-                    val pixelX: Int
-                    val pixelY: Int
-                    when (corner) {
-                        Corner.TOP_LEFT -> {
-                            pixelX = x + (radius - 1 - dx)
-                            pixelY = y + (radius - 1 - dy)
-                        }
-                        Corner.TOP_RIGHT -> {
-                            pixelX = x + dx
-                            pixelY = y + (radius - 1 - dy)
-                        }
-                        Corner.BOTTOM_LEFT -> {
-                            pixelX = x + (radius - 1 - dx)
-                            pixelY = y + dy
-                        }
-                        Corner.BOTTOM_RIGHT -> {
-                            pixelX = x + dx
-                            pixelY = y + dy
-                        }
-                    }
-                    context.fill(pixelX, pixelY, pixelX + 1, pixelY + 1, color)
-                }
-            }
-        }
-    }
 
     override fun getWidth(): Int = cachedWidth
 
@@ -0,0 +1,336 @@
+package code.cinnamon.hud.elements
+
+import net.minecraft.block.BlockState
+import net.minecraft.block.Blocks
+import net.minecraft.block.ShapeContext
+import net.minecraft.block.entity.BlockEntity
+import net.minecraft.client.world.ClientWorld
+import net.minecraft.entity.Entity
+import net.minecraft.fluid.FluidState
+import net.minecraft.text.Text
+import net.minecraft.util.hit.HitResult
+import net.minecraft.util.math.BlockPos
+import net.minecraft.util.math.Box
+import net.minecraft.util.math.ChunkSectionPos
+import net.minecraft.util.math.Vec3d
+import net.minecraft.world.BlockView
+import net.minecraft.world.RaycastContext
+import net.minecraft.world.chunk.PalettedContainer
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicReference
+import kotlin.math.abs
+import kotlin.math.floor
+import kotlin.math.sqrt
+
+/**
+ * Runs the Look At raycasts on a background thread against copies of the world. On the render
+ * thread, [request] only copies state: the block palettes of the chunk sections along the ray
+ * (reused while fresh, at most [SECTION_COPY_BUDGET] new copies per request) and the boxes of the
+ * loaded entities near the ray. The worker walks those copies for the block and entity hits, and
+ * names are resolved back on the render thread in [latestResult].
+ *
+ * When the copy budget runs out, the cast stops at the first section that was not copied and the
+ * next request continues from there, so a long ray through built-up terrain settles over a few
+ * frames instead of stalling one.
+ */
+internal object LookAtRaycaster {
+    data class Result(val name: String, val distance: Double)
+
+    private class Request(
+        val origin: Vec3d,
+        val end: Vec3d,
+        val blocks: SectionSnapshot,
+        val entities: Array<Entity>,
+        val entityBoxes: Array<Box>,
+        val entityPositions: Array<Vec3d>,
+        val complete: Boolean
+    )
+
+    // Either an entity or a block; resolved to a display name on the render thread.
+    private class Hit(val entity: Entity?, val blockState: BlockState?, val distance: Double)
+
+    private class CachedSection(val blocks: PalettedContainer<BlockState>?, val copiedAt: Long)
+
+    private const val POSITION_EPSILON_SQ = 1.0e-6
+    private const val DIRECTION_EPSILON = 1.0e-7
+    private const val REFRESH_INTERVAL_MS = 250L
+    private const val SECTION_SIZE = 16.0
+    private const val ENTITY_MARGIN = 0.3
+    private const val SECTION_COPY_BUDGET = 32
+    private const val SECTION_TTL_MS = 1000L
+    // Sections this close to the camera are copied on every request, so edits show up at once.
+    private const val NEAR_SECTION_DISTANCE = 24.0
+    private const val MAX_CACHED_SECTIONS = 1024
+
+    private val executor: ExecutorService = Executors.newSingleThreadExecutor { r ->
+        Thread(r, "Cinnamon-LookAt").apply {
+            isDaemon = true
+            priority = Thread.NORM_PRIORITY - 1
+        }
+    }
+
+    private val latest = AtomicReference<Hit?>(null)
+    private val inFlight = AtomicBoolean(false)
+    @Volatile private var incomplete = false
+
+    // Render thread only.
+    private val sectionCache = HashMap<Long, CachedSection>()
+    private var lastWorld: ClientWorld? = null
+    private var lastOrigin: Vec3d = Vec3d.ZERO
+    private var lastDirection: Vec3d = Vec3d.ZERO
+    private var lastSubmitTime = 0L
+    private var resolvedHit: Hit? = null
+    private var resolvedResult: Result? = null
+
+    /** The latest result; returns the same instance until a new hit is published. Render thread only. */
+    fun latestResult(): Result? {
+        val hit = latest.get()
+        if (hit !== resolvedHit) {
+            resolvedHit = hit
+            resolvedResult = hit?.let { Result(describe(it), it.distance) }
+        }
+        return resolvedResult
+    }
+
+    /** Copies what the next cast needs and hands it to the worker. Must be called on the render thread. */
+    fun request(world: ClientWorld, camera: Entity, maxDistance: Double) {
+        val origin = camera.getCameraPosVec(1.0f)
+        val direction = camera.getRotationVec(1.0f)
+        val now = System.currentTimeMillis()
+
+        val moved = world !== lastWorld ||
+                origin.squaredDistanceTo(lastOrigin) > POSITION_EPSILON_SQ ||
+                1.0 - direction.dotProduct(lastDirection) > DIRECTION_EPSILON
+        if (!moved && !incomplete && now - lastSubmitTime < REFRESH_INTERVAL_MS) return
+        if (!inFlight.compareAndSet(false, true)) return
+
+        if (world !== lastWorld) sectionCache.clear()
+        lastWorld = world
+        lastOrigin = origin
+        lastDirection = direction
+        lastSubmitTime = now
+
+        val request = try {
+            capture(world, camera, origin, direction, maxDistance, now)
+        } catch (e: Exception) {
+            inFlight.set(false)
+            throw e
+        }
+        executor.execute {
+            try {
+                val hit = cast(request)
+                // A cut-short cast that found nothing says nothing about the rest of the ray.
+                if (hit != null || request.complete) latest.set(hit)
+                incomplete = !request.complete
+            } finally {
+                inFlight.set(false)
+            }
+        }
+    }
+
+    fun clear() {
+        latest.set(null)
+        lastWorld = null
+        sectionCache.clear()
+    }
+
+    // Render thread: copies the sections along the ray and the entity boxes near it.
+    private fun capture(
+        world: ClientWorld,
+        camera: Entity,
+        origin: Vec3d,
+        direction: Vec3d,
+        maxDistance: Double,
+        now: Long
+    ): Request {
+        if (sectionCache.size > MAX_CACHED_SECTIONS) {
+            sectionCache.values.removeIf { now - it.copiedAt > SECTION_TTL_MS }
+        }
+
+        val sections = HashMap<Long, PalettedContainer<BlockState>?>()
+        var budget = SECTION_COPY_BUDGET
+        var castDistance = maxDistance
+        var complete = true
+        walkSections(origin, direction, maxDistance) { sx, sy, sz, entry ->
+            val key = ChunkSectionPos.asLong(sx, sy, sz)
+            val cached = sectionCache[key]
+            val fresh = cached != null && now - cached.copiedAt < SECTION_TTL_MS && entry > NEAR_SECTION_DISTANCE
+            if (fresh) {
+                sections[key] = cached!!.blocks
+                return@walkSections true
+            }
+            val copied = copySection(world, sx, sy, sz, budget > 0)
+            if (copied == null) {
+                castDistance = entry
+                complete = false
+                return@walkSections false
+            }
+            if (copied.blocks != null) budget--
+            sectionCache[key] = CachedSection(copied.blocks, now)
+            sections[key] = copied.blocks
+            true
+        }
+
+        val end = origin.add(direction.multiply(castDistance))
+        val rayBounds = Box(origin, end).expand(ENTITY_MARGIN)
+        val entities = ArrayList<Entity>()
+        for (entity in world.entities) {
+            if (entity === camera || entity.isSpectator) continue
+            if (entity.boundingBox.intersects(rayBounds)) entities.add(entity)
+        }
+
+        return Request(
+            origin = origin,
+            end = end,
+            blocks = SectionSnapshot(sections, world.bottomY, world.height),
+            entities = entities.toTypedArray(),
+            entityBoxes = Array(entities.size) { entities[it].boundingBox.expand(ENTITY_MARGIN) },
+            entityPositions = Array(entities.size) { entities[it].pos },
+            complete = complete
+        )
+    }
+
+    /**
+     * A copy of one section's block palette; null blocks for an empty or unloaded section. Returns
+     * null when the section has blocks but [allowCopy] is false.
+     */
+    private fun copySection(world: ClientWorld, sx: Int, sy: Int, sz: Int, allowCopy: Boolean): CachedSection? {
+        val empty = CachedSection(null, 0L)
+        if (sy < world.bottomSectionCoord || sy >= world.topSectionCoord) return empty
+        if (!world.chunkManager.isChunkLoaded(sx, sz)) return empty
+        val section = world.getChunk(sx, sz).sectionArray[world.sectionCoordToIndex(sy)]
+        if (section.isEmpty) return empty
+        if (!allowCopy) return null
+        return CachedSection(section.blockStateContainer.copy(), 0L)
+    }
+
+    // Worker thread: walks the copies only.
+    private fun cast(request: Request): Hit? {
+        val blockHit = request.blocks.raycast(RaycastContext(
+            request.origin,
+            request.end,
+            RaycastContext.ShapeType.OUTLINE,
+            RaycastContext.FluidHandling.NONE,
+            ShapeContext.absent()
+        ))
+        val blockMissed = blockHit.type == HitResult.Type.MISS
+        val entityEnd = if (blockMissed) request.end else blockHit.pos
+
+        var closest = -1
+        var closestDistanceSq = Double.MAX_VALUE
+        for (i in request.entityBoxes.indices) {
+            val hit = request.entityBoxes[i].raycast(request.origin, entityEnd)
+            if (hit.isPresent) {
+                val distanceSq = request.origin.squaredDistanceTo(hit.get())
+                if (distanceSq < closestDistanceSq) {
+                    closestDistanceSq = distanceSq
+                    closest = i
+                }
+            }
+        }
+        if (closest >= 0) {
+            val distance = sqrt(request.origin.squaredDistanceTo(request.entityPositions[closest]))
+            return Hit(request.entities[closest], null, distance)
+        }
+
+        if (blockMissed) return null
+        val blockPos = blockHit.blockPos
+        val distance = sqrt(request.origin.squaredDistanceTo(Vec3d.ofCenter(blockPos)))
+        return Hit(null, request.blocks.getBlockState(blockPos), distance)
+    }
+
+    /**
+     * Visits the chunk sections crossed by the ray (3D DDA) in order, with the distance at which
+     * the ray enters each, until [visit] returns false or the ray passes [maxDistance].
+     */
+    private inline fun walkSections(
+        origin: Vec3d,
+        dir: Vec3d,
+        maxDistance: Double,
+        visit: (sx: Int, sy: Int, sz: Int, entry: Double) -> Boolean
+    ) {
+        var sx = floor(origin.x / SECTION_SIZE).toInt()
+        var sy = floor(origin.y / SECTION_SIZE).toInt()
+        var sz = floor(origin.z / SECTION_SIZE).toInt()
+        val stepX = if (dir.x > 0) 1 else -1
+        val stepY = if (dir.y > 0) 1 else -1
+        val stepZ = if (dir.z > 0) 1 else -1
+        val deltaX = if (dir.x != 0.0) abs(SECTION_SIZE / dir.x) else Double.MAX_VALUE
+        val deltaY = if (dir.y != 0.0) abs(SECTION_SIZE / dir.y) else Double.MAX_VALUE
+        val deltaZ = if (dir.z != 0.0) abs(SECTION_SIZE / dir.z) else Double.MAX_VALUE
+        var nextX = boundaryDistance(origin.x, dir.x, sx, stepX)
+        var nextY = boundaryDistance(origin.y, dir.y, sy, stepY)
+        var nextZ = boundaryDistance(origin.z, dir.z, sz, stepZ)
+
+        var sectionEntry = 0.0
+        while (sectionEntry <= maxDistance) {
+            if (!visit(sx, sy, sz, sectionEntry)) return
+
+            if (nextX <= nextY && nextX <= nextZ) {
+                sectionEntry = nextX
+                nextX += deltaX
+                sx += stepX
+            } else if (nextY <= nextZ) {
+                sectionEntry = nextY
+                nextY += deltaY
+                sy += stepY
+            } else {
+                sectionEntry = nextZ
+                nextZ += deltaZ
+                sz += stepZ
+            }
+        }
+    }
+
+    private fun boundaryDistance(origin: Double, dir: Double, section: Int, step: Int): Double {
+        if (dir == 0.0) return Double.MAX_VALUE
+        val boundary = (if (step > 0) section + 1 else section) * SECTION_SIZE
+        return (boundary - origin) / dir
+    }
+
+    /**
+     * Block view over copied section palettes; anything outside them reads as air. Outline shapes
+     * that depend on a block entity fall back to their default, as there are none in the copy.
+     */
+    private class SectionSnapshot(
+        private val sections: Map<Long, PalettedContainer<BlockState>?>,
+        private val bottomY: Int,
+        private val height: Int
+    ) : BlockView {
+        override fun getBlockState(pos: BlockPos): BlockState {
+            val key = ChunkSectionPos.asLong(pos.x shr 4, pos.y shr 4, pos.z shr 4)
+            val blocks = sections[key] ?: return Blocks.AIR.defaultState
+            return blocks.get(pos.x and 15, pos.y and 15, pos.z and 15)
+        }
+
+        override fun getFluidState(pos: BlockPos): FluidState = getBlockState(pos).fluidState
+
+        override fun getBlockEntity(pos: BlockPos): BlockEntity? = null
+
+        override fun getHeight(): Int = height
+
+        override fun getBottomY(): Int = bottomY
+    }
+
+    private fun describe(hit: Hit): String {
+        hit.entity?.let { return it.displayName?.string ?: "Entity" }
+        val blockState = hit.blockState ?: return "Block"
+        return getBlockName(blockState)
+    }
+
+    private fun getBlockName(blockState: BlockState): String {
+        return blockState.block.translationKey.let { key ->
+            val displayName = Text.translatable(key).string
+            if (displayName.contains("block.minecraft.")) {
+                displayName.substringAfter("block.minecraft.")
+                    .replace("_", " ")
+                    .split(" ")
+                    .joinToString(" ") { it.capitalize() }
+            } else {
+                displayName
+            }
+        }
+    }
+}
@@ -1,7 +1,8 @@
 package code.cinnamon.hud.elements
 
+import code.cinnamon.gui.utils.StyledTextCache
+import code.cinnamon.hud.HudData
 import code.cinnamon.hud.HudElement
-import code.cinnamon.hud.HudElementConfig
 import code.cinnamon.gui.utils.GraphicsUtils
 import code.cinnamon.util.PacketHandlerAPI
 import code.cinnamon.gui.CinnamonScreen
@@ -25,28 +26,20 @@ class PacketHandlerHudElement(initialX: Float, initialY: Float) : HudElement(ini
     private val baseButtonHeight = 20
     private val baseButtonMargin = 2
 
-    var buttonColor: Int = 20987968
-    var buttonHoverColor: Int = -6315615
-    var buttonOutlineColor: Int = 2126605840.toInt()
+    private val buttonColorSetting = code.cinnamon.modules.ColorSetting("Button Color", 20987968)
+    private val buttonHoverColorSetting = code.cinnamon.modules.ColorSetting("Button Hover Color", -6315615)
+    private val buttonOutlineColorSetting = code.cinnamon.modules.ColorSetting("Button Outline Color", 2126605840.toInt())
+
+    val buttonColor: Int get() = buttonColorSetting.colorValue
+    val buttonHoverColor: Int get() = buttonHoverColorSetting.colorValue
+    val buttonOutlineColor: Int get() = buttonOutlineColorSetting.colorValue
 
     init {
-        settings.add(code.cinnamon.modules.ColorSetting("Button Color", buttonColor) { value ->
-            buttonColor = value
-            HudManager.saveHudConfig()
-        })
-        settings.add(code.cinnamon.modules.ColorSetting("Button Hover Color", buttonHoverColor) { value ->
-            buttonHoverColor = value
-            HudManager.saveHudConfig()
-        })
-        settings.add(code.cinnamon.modules.ColorSetting("Button Outline Color", buttonOutlineColor) { value ->
-            buttonOutlineColor = value
-            HudManager.saveHudConfig()
-        })
+        settings.add(buttonColorSetting)
+        settings.add(buttonHoverColorSetting)
+        settings.add(buttonOutlineColorSetting)
     }
 
-    private fun createStyledText(text: String): Text =
-        Text.literal(text).setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont()))
-
     private data class HudButtonInternal(
         var text: () -> String,
         val action: () -> Unit
@@ -62,7 +55,11 @@ class PacketHandlerHudElement(initialX: Float, initialY: Float) : HudElement(ini
         HudButtonInternal({ "Send packets: ${code.cinnamon.SharedVariables.packetSendingEnabled}" }) {
             code.cinnamon.SharedVariables.packetSendingEnabled = !code.cinnamon.SharedVariables.packetSendingEnabled
         },
-        HudButtonInternal({ "Delay packets: ${PacketHandlerAPI.isPacketBlocking()}" }) {
+        HudButtonInternal({
+            val queued = HudData.snapshot().queuedPackets
+            if (queued > 0) "Delay packets: ${PacketHandlerAPI.isPacketBlocking()} ($queued)"
+            else "Delay packets: ${PacketHandlerAPI.isPacketBlocking()}"
+        }) {
             if (PacketHandlerAPI.isPacketBlocking()) {
                 PacketHandlerAPI.stopPacketBlocking()
                 client.networkHandler?.let { PacketHandlerAPI.flushPacketQueue() }
@@ -100,43 +97,6 @@ class PacketHandlerHudElement(initialX: Float, initialY: Float) : HudElement(ini
         }
     )
 
-
-    fun applyConfig(config: HudElementConfig) {
-        config.buttonColor?.let { color ->
-            (settings.find { it.name == "Button Color" } as? code.cinnamon.modules.ColorSetting)?.set(color)
-        }
-        config.buttonHoverColor?.let { color ->
-            (settings.find { it.name == "Button Hover Color" } as? code.cinnamon.modules.ColorSetting)?.set(color)
-        }
-        config.buttonOutlineColor?.let { color ->
-            (settings.find { it.name == "Button Outline Color" } as? code.cinnamon.modules.ColorSetting)?.set(color)
-        }
-
-        this.setX(config.x)
-        this.setY(config.y)
-        this.scale = config.scale
-        this.isEnabled = config.isEnabled
-        this.textColor = config.textColor
-        this.backgroundColor = config.backgroundColor
-        this.textShadowEnabled = config.textShadowEnabled
-    }
-
-    fun toConfig(): HudElementConfig {
-        return HudElementConfig(
-            name = getName(),
-            x = getX(),
-            y = getY(),
-            scale = scale,
-            isEnabled = isEnabled,
-            textColor = textColor,
-            backgroundColor = backgroundColor,
-            textShadowEnabled = textShadowEnabled,
-            buttonColor = buttonColor,
-            buttonHoverColor = this.buttonHoverColor,
-            buttonOutlineColor = this.buttonOutlineColor
-        )
-    }
-
     private fun shouldRender(): Boolean {
         val screen = client.currentScreen
         return code.cinnamon.SharedVariables.enabled &&
@@ -166,12 +126,12 @@ class PacketHandlerHudElement(initialX: Float, initialY: Float) : HudElement(ini
 
         val unscaledButtonMargin = baseButtonMargin.toFloat()
         val unscaledButtonHeight = baseButtonHeight.toFloat()
-        val unscaledContentWidth = getWidth().toFloat() - 2 * unscaledButtonMargin
+        val unscaledContentWidth = measuredWidth.toFloat() - 2 * unscaledButtonMargin
 
         var currentUnscaledButtonTopY = unscaledButtonMargin
 
         for (btn in internalButtons) {
-            val btnText = createStyledText(btn.text())
+            val btnLabel = btn.text()
             val btnX = unscaledButtonMargin
             val btnY = currentUnscaledButtonTopY
 
@@ -183,13 +143,13 @@ class PacketHandlerHudElement(initialX: Float, initialY: Float) : HudElement(ini
                         localUnscaledMouseY_forHover < btnY + unscaledButtonHeight
             }
 
-            drawCustomButton(context, btnX, btnY, unscaledContentWidth, unscaledButtonHeight, btnText, isMouseOverButton)
+            drawCustomButton(context, btnX, btnY, unscaledContentWidth, unscaledButtonHeight, btnLabel, isMouseOverButton)
 
             currentUnscaledButtonTopY += unscaledButtonHeight + unscaledButtonMargin
         }
 
         if (HudManager.isEditMode()) {
-            context.drawBorder(0, 0, getWidth(), getHeight(), 0xFFFF0000.toInt())
+            context.drawBorder(0, 0, measuredWidth, measuredHeight, 0xFFFF0000.toInt())
         }
         context.matrices.popMatrix()
     }
@@ -197,7 +157,7 @@ class PacketHandlerHudElement(initialX: Float, initialY: Float) : HudElement(ini
     private fun drawCustomButton(
         context: DrawContext,
         x: Float, y: Float, width: Float, height: Float,
-        text: Text, hovered: Boolean
+        label: String, hovered: Boolean
     ) {
         GraphicsUtils.drawFilledRoundedRect(
             context, x, y, width, height,
@@ -213,7 +173,8 @@ class PacketHandlerHudElement(initialX: Float, initialY: Float) : HudElement(ini
         )
 
         val tr = client.textRenderer
-        val textWidth = tr.getWidth(text)
+        val text = StyledTextCache.get(label)
+        val textWidth = StyledTextCache.width(label)
         val fontHeight = tr.fontHeight
 
         val textX = x + (width - textWidth) / 2f
@@ -223,7 +184,7 @@ class PacketHandlerHudElement(initialX: Float, initialY: Float) : HudElement(ini
     }
 
     override fun getWidth(): Int =
-        internalButtons.maxOfOrNull { client.textRenderer.getWidth(createStyledText(it.text())) }?.plus(baseButtonMargin * 4) ?: 100
+        internalButtons.maxOfOrNull { StyledTextCache.width(it.text()) }?.plus(baseButtonMargin * 4) ?: 100
 
     override fun getHeight(): Int =
         internalButtons.size * (baseButtonHeight + baseButtonMargin) + baseButtonMargin
@@ -233,6 +194,7 @@ class PacketHandlerHudElement(initialX: Float, initialY: Float) : HudElement(ini
 
     override fun mouseClicked(mouseX: Double, mouseY: Double, button: Int): Boolean {
         if (!shouldRender() || HudManager.isEditMode() || !isEnabled) return false
+        if (!isMouseOver(mouseX, mouseY)) return false
 
         val currentElementScale = this.scale
         if (currentElementScale == 0.0f) return false
@@ -245,7 +207,7 @@ class PacketHandlerHudElement(initialX: Float, initialY: Float) : HudElement(ini
 
         val unscaledButtonMargin = baseButtonMargin.toFloat()
         val unscaledButtonHeight = baseButtonHeight.toFloat()
-        val unscaledContentWidth = getWidth().toFloat() - 2 * unscaledButtonMargin
+        val unscaledContentWidth = measuredWidth.toFloat() - 2 * unscaledButtonMargin
 
         var currentUnscaledButtonTopY = unscaledButtonMargin
 
@@ -1,8 +1,17 @@
 package code.cinnamon.hud.elements
 
+import code.cinnamon.gui.utils.ReadoutText
+import code.cinnamon.gui.utils.StyledTextCache
 import code.cinnamon.gui.CinnamonScreen
 import code.cinnamon.gui.theme.CinnamonTheme
+import code.cinnamon.gui.utils.FixedPointFormatter
+import code.cinnamon.gui.utils.GraphicsUtils
+import code.cinnamon.hud.HudData
 import code.cinnamon.hud.HudElement
+import code.cinnamon.hud.HudManager
+import code.cinnamon.hud.PingProber
+import code.cinnamon.modules.DoubleSetting
+import code.cinnamon.modules.ModeSetting
 import net.minecraft.client.MinecraftClient
 import net.minecraft.client.gui.DrawContext
 import net.minecraft.text.Style
@@ -14,6 +23,59 @@ class PingHudElement(x: Float, y: Float) : HudElement(x, y) {
     private val cornerRadius = 6
     private val internalPadding = 6
 
+
+    private val sourceSetting = ModeSetting("Source", "Tab List", listOf("Tab List", "Probe"))
+    private val probeIntervalSetting = DoubleSetting("Probe Interval (ms)", 500.0, 100.0, 2000.0, 50.0)
+
+    init {
+        settings.add(sourceSetting)
+        settings.add(probeIntervalSetting)
+    }
+
+    private var cachedPing = -1
+    private var pingText: Text = Text.empty()
+    private var pingTextWidth = 0
+
+    private val currentFormatter = FixedPointFormatter(1)
+    private var appliedStatsVersion = -1L
+    private val probeReadout = ReadoutText()
+    private val statsReadout = ReadoutText()
+
+    private fun probeMode(): Boolean = sourceSetting.value == "Probe"
+
+    override fun hasContentChanged(): Boolean {
+        if (probeMode()) {
+            PingProber.keepAlive(probeIntervalSetting.doubleValue)
+            return PingProber.stats().version != appliedStatsVersion
+        }
+        return HudData.snapshot().latency != cachedPing
+    }
+
+    override fun rebuildContent() {
+        if (probeMode()) {
+            rebuildProbeStats()
+            return
+        }
+        cachedPing = HudData.snapshot().latency
+        val label = "${cachedPing}ms"
+        pingText = StyledTextCache.get(label)
+        pingTextWidth = StyledTextCache.width(label)
+    }
+
+    private fun rebuildProbeStats() {
+        PingProber.keepAlive(probeIntervalSetting.doubleValue)
+        val stats = PingProber.stats()
+        appliedStatsVersion = stats.version
+        currentFormatter.update(stats.currentMs, suffix = "ms")
+
+        probeReadout.update(currentFormatter.string)
+        pingText = probeReadout.text
+        pingTextWidth = probeReadout.width
+        statsReadout.update("Min: %.1f  Avg: %.1f  Jitter: %.1f  Loss: %.0f%%".format(
+            java.util.Locale.ROOT, stats.minMs, stats.avgMs, stats.jitterMs, stats.lossPercent
+        ))
+    }
+
     override fun renderElement(context: DrawContext, tickDelta: Float) {
         if (!isEnabled) return
 
@@ -21,97 +83,34 @@ class PingHudElement(x: Float, y: Float) : HudElement(x, y) {
         context.matrices.translate(getX(), getY(), context.matrices)
         context.matrices.scale(this.scale, this.scale, context.matrices)
 
-        val currentPing = getPing()
-
         if (backgroundColor != 0) {
-            drawRoundedBackground(
+            GraphicsUtils.drawFilledRoundedRect(
                 context,
                 -internalPadding,
                 -internalPadding,
-                getWidth() + internalPadding * 2,
-                getHeight() + internalPadding * 2,
+                measuredWidth + internalPadding * 2,
+                measuredHeight + internalPadding * 2,
+                cornerRadius,
                 this.backgroundColor
             )
         }
 
-        val pingText = Text.literal("${currentPing}ms").setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont()))
-
+        val statsY = mc.textRenderer.fontHeight + 1
         if (this.textShadowEnabled) {
             context.drawText(mc.textRenderer, pingText, 1, 1, 0x40000000, false)
+            if (probeMode()) context.drawText(mc.textRenderer, statsReadout.text, 1, statsY + 1, 0x40000000, false)
         }
         context.drawText(mc.textRenderer, pingText, 0, 0, this.textColor, false)
+        if (probeMode()) context.drawText(mc.textRenderer, statsReadout.text, 0, statsY, this.textColor, false)
         context.matrices.popMatrix()
     }
 
-    private fun drawRoundedBackground(context: DrawContext, x: Int, y: Int, width: Int, height: Int, backgroundColor: Int) {
-        drawRoundedRect(context, x, y, width, height, cornerRadius, backgroundColor)
-    }
-
-    private fun drawRoundedRect(context: DrawContext, x: Int, y: Int, width: Int, height: Int, radius: Int, color: Int) {
-        if (color == 0) return
-
-        val r = minOf(radius, minOf(width / 2, height / 2))
-
-        if (r <= 0) {
-            context.fill(x, y, x + width, y + height, color)
-            return
-        }
-
-        context.fill(x + r, y, x + width - r, y + height, color)
-
-        context.fill(x, y + r, x + r, y + height - r, color)
-        context.fill(x + width - r, y + r, x + width, y + height - r, color)
+    override fun getWidth(): Int = if (probeMode()) maxOf(pingTextWidth, statsReadout.width) else pingTextWidth
 
-        drawRoundedCorner(context, x, y, r, color, 0)
-        drawRoundedCorner(context, x + width - r, y, r, color, 1)
-        drawRoundedCorner(context, x, y + height - r, r, color, 2)
-        drawRoundedCorner(context, x + width - r, y + height - r, r, color, 3)
+    override fun getHeight(): Int {
+        if (!probeMode()) return mc.textRenderer.fontHeight
+        return mc.textRenderer.fontHeight * 2 + 1
     }
-
-    private fun drawRoundedCorner(context: DrawContext, x: Int, y: Int, radius: Int, color: Int, corner: Int) {
-        for (dy in 0 until radius) {
-            for (dx in 0 until radius) {
-                val distanceSquared = dx * dx + dy * dy
-                if (distanceSquared <= radius * radius) {
-                    val pixelX: Int
-                    val pixelY: Int
-
-                    when (corner) {
-                        0 -> {
-                            pixelX = x + (radius - 1 - dx)
-                            pixelY = y + (radius - 1 - dy)
-                        }
-                        1 -> {
-                            pixelX = x + dx
-                            pixelY = y + (radius - 1 - dy)
-                        }
-                        2 -> {
-                            pixelX = x + (radius - 1 - dx)
-                            pixelY = y + dy
-                        }
-                        3 -> {
-                            pixelX = x + dx
-                            pixelY = y + dy
-                        }
-                        else -> continue
-                    }
-
-                    context.fill(pixelX, pixelY, pixelX + 1, pixelY + 1, color)
-                }
-            }
-        }
-    }
-
-    private fun getPing(): Int {
-        return mc.networkHandler?.getPlayerListEntry(mc.player?.uuid)?.latency ?: 0
-    }
-
-    override fun getWidth(): Int {
-        val text = Text.literal("${getPing()}ms").setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont()))
-        return mc.textRenderer.getWidth(text)
-    }
-
-    override fun getHeight(): Int = mc.textRenderer.fontHeight
     override fun getName(): String = "Ping"
     override val description: String = "Displays your current latency to the server"
 }
@@ -1,6 +1,10 @@
 package code.cinnamon.hud.elements
 
+import code.cinnamon.gui.utils.ClockTimeFormatter
+import code.cinnamon.gui.utils.ReadoutText
+import code.cinnamon.gui.utils.StyledTextCache
 import code.cinnamon.gui.theme.CinnamonTheme
+import code.cinnamon.hud.HudData
 import code.cinnamon.hud.HudElement
 import code.cinnamon.spotify.SpotifyAuthManager
 import code.cinnamon.spotify.SpotifyApi
@@ -28,6 +32,11 @@ class SpotifyHudElement(x: Float, y: Float) : HudElement(x, y) {
 
     private var albumTexture: Identifier? = null
     private var currentTrackData: SpotifyTrackData? = null
+    private var appliedTrackVersion = 0
+    private val currentTimeFormatter = ClockTimeFormatter()
+    private val durationFormatter = ClockTimeFormatter()
+    private val currentTimeReadout = ReadoutText()
+    private val durationReadout = ReadoutText()
     private var loadingAlbumUrl: String? = null
     private var lastUpdateTime = 0L
     private val updateInterval = 1000L
@@ -53,6 +62,7 @@ class SpotifyHudElement(x: Float, y: Float) : HudElement(x, y) {
                 updateTrackData(token)
                 lastUpdateTime = currentTime
             }
+            applyPublishedTrack()
             renderSpotifyPlayer(context)
         } else {
             renderNotConnected(context)
@@ -64,28 +74,34 @@ class SpotifyHudElement(x: Float, y: Float) : HudElement(x, y) {
     private fun updateTrackData(token: String) {
         Thread {
             try {
-                val newTrackData = SpotifyApi.getCurrentTrackData(token)
-                mc.execute {
-                    if (currentTrackData?.albumImageUrl != newTrackData?.albumImageUrl) {
-                        albumTexture?.let { mc.textureManager.destroyTexture(it) }
-                        albumTexture = null
-                    }
-
-                    if (currentTrackData?.title != newTrackData?.title ||
-                        currentTrackData?.artist != newTrackData?.artist) {
-                        titleScrollOffset = 0f
-                        artistScrollOffset = 0f
-                        titleScrollStartTime = System.currentTimeMillis()
-                        artistScrollStartTime = System.currentTimeMillis()
-                    }
-
-                    currentTrackData = newTrackData
-                }
+                HudData.publishSpotifyTrack(SpotifyApi.getCurrentTrackData(token))
             } catch (e: Exception) {
             }
         }.start()
     }
 
+    private fun applyPublishedTrack() {
+        val snapshot = HudData.snapshot()
+        if (snapshot.spotifyTrackVersion == appliedTrackVersion) return
+        appliedTrackVersion = snapshot.spotifyTrackVersion
+        val newTrackData = snapshot.spotifyTrack
+
+        if (currentTrackData?.albumImageUrl != newTrackData?.albumImageUrl) {
+            albumTexture?.let { mc.textureManager.destroyTexture(it) }
+            albumTexture = null
+        }
+
+        if (currentTrackData?.title != newTrackData?.title ||
+            currentTrackData?.artist != newTrackData?.artist) {
+            titleScrollOffset = 0f
+            artistScrollOffset = 0f
+            titleScrollStartTime = System.currentTimeMillis()
+            artistScrollStartTime = System.currentTimeMillis()
+        }
+
+        currentTrackData = newTrackData
+    }
+
     private fun renderSpotifyPlayer(context: DrawContext) {
         val trackData = currentTrackData
 
@@ -132,28 +148,24 @@ class SpotifyHudElement(x: Float, y: Float) : HudElement(x, y) {
             drawProgressBar(context, xOffset, progressY, progressBarWidth, progressBarHeight, trackData.progress)
 
             val timeY = progressY + progressBarHeight + 3
-            val currentTimeStr = formatTime(trackData.currentTimeMs)
-            val durationStr = formatTime(trackData.durationMs)
-
-            val currentTimeText = Text.literal(currentTimeStr).setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont()))
-            val durationText = Text.literal(durationStr).setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont()))
-
-            val durationTextWidth = mc.textRenderer.getWidth(durationText)
-
-            context.drawText(mc.textRenderer, currentTimeText, xOffset, timeY, textColor, textShadowEnabled)
-            context.drawText(mc.textRenderer, durationText, xOffset + progressBarWidth - durationTextWidth, timeY, textColor, textShadowEnabled)
+            // The formatters keep the same string until the second changes, so this rebuilds once a second.
+            currentTimeFormatter.update(trackData.currentTimeMs)
+            durationFormatter.update(trackData.durationMs)
+            currentTimeReadout.update(currentTimeFormatter.string)
+            durationReadout.update(durationFormatter.string)
+
+            context.drawText(mc.textRenderer, currentTimeReadout.text, xOffset, timeY, textColor, textShadowEnabled)
+            context.drawText(mc.textRenderer, durationReadout.text, xOffset + progressBarWidth - durationReadout.width, timeY, textColor, textShadowEnabled)
         } else {
-            val text = Text.literal("♪ No track playing")
-                .setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont()))
+            val text = StyledTextCache.get("♪ No track playing")
             context.drawText(mc.textRenderer, text, 0, (albumSize / 2) - 4, textColor, textShadowEnabled)
         }
     }
 
     private fun drawAlbumPlaceholder(context: DrawContext, x: Int, y: Int) {
         context.fill(x, y, x + albumSize, y + albumSize, 0xFF444444.toInt())
-        val placeholderText = Text.literal("♪")
-            .setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont()))
-        val textWidth = mc.textRenderer.getWidth(placeholderText)
+        val placeholderText = StyledTextCache.get("♪")
+        val textWidth = StyledTextCache.width("♪")
         val textHeight = mc.textRenderer.fontHeight
         context.drawText(mc.textRenderer, placeholderText,
             x + (albumSize - textWidth) / 2,
@@ -162,8 +174,8 @@ class SpotifyHudElement(x: Float, y: Float) : HudElement(x, y) {
     }
 
     private fun drawScrollingText(context: DrawContext, text: String, x: Int, y: Int, maxWidth: Int, color: Int, isTitle: Boolean) {
-        val textObj = Text.literal(text).setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont()))
-        val textWidth = mc.textRenderer.getWidth(textObj)
+        val textObj = StyledTextCache.get(text)
+        val textWidth = StyledTextCache.width(text)
 
         if (textWidth <= maxWidth) {
             context.drawText(mc.textRenderer, textObj, x, y, color, textShadowEnabled)
@@ -207,16 +219,8 @@ class SpotifyHudElement(x: Float, y: Float) : HudElement(x, y) {
         context.disableScissor()
     }
 
-    private fun formatTime(timeMs: Long): String {
-        val totalSeconds = timeMs / 1000
-        val minutes = totalSeconds / 60
-        val seconds = totalSeconds % 60
-        return String.format("%d:%02d", minutes, seconds)
-    }
-
     private fun renderNotConnected(context: DrawContext) {
-        val text = Text.literal("♪ Spotify - Not Connected")
-            .setStyle(Style.EMPTY.withFont(CinnamonTheme.getCurrentFont()))
+        val text = StyledTextCache.get("♪ Spotify - Not Connected")
         context.drawText(mc.textRenderer, text, 0, (albumSize / 2) - 4, 0x888888, textShadowEnabled)
     }
 
@@ -296,7 +300,7 @@ class SpotifyHudElement(x: Float, y: Float) : HudElement(x, y) {
         return if (token != null) {
             albumSize + padding + progressBarWidth
         } else {
-            mc.textRenderer.getWidth(Text.literal("♪ Spotify - Not Connected"))
+            StyledTextCache.width("♪ Spotify - Not Connected")
         }
     }
 
@@ -1,9 +1,14 @@
 package code.cinnamon.keybindings
 
+import code.cinnamon.config.ConfigStore
+import code.cinnamon.gui.CinnamonGuiManager
+import code.cinnamon.modules.ModuleManager
 import kotlinx.serialization.Serializable
+import kotlinx.serialization.builtins.serializer
 import kotlinx.serialization.decodeFromString
-import kotlinx.serialization.encodeToString
 import kotlinx.serialization.json.Json
+import net.minecraft.client.MinecraftClient
+import net.minecraft.client.gui.screen.Screen
 import net.minecraft.client.option.KeyBinding
 import net.minecraft.client.util.InputUtil
 import net.fabricmc.fabric.api.client.keybinding.v1.KeyBindingHelper
@@ -11,20 +16,45 @@ import org.lwjgl.glfw.GLFW
 import java.io.File
 import java.nio.file.Paths
 
+/** Where a keybinding may fire. */
+enum class KeyContext {
+    ANY,
+    IN_GAME,
+    IN_SCREEN
+}
+
 /**
  * Manages the registration and state of keybindings for the Cinnamon mod.
+ *
+ * Actions are attached to bindings with [onAction] and dispatched straight from key presses through
+ * a table indexed by key code, so nothing is polled per tick. A binding can require modifiers
+ * (Ctrl+X); stored keys pack them above the key code.
  */
 object KeybindingManager {
-    private val keybindings = mutableMapOf<String, KeyBinding>()
-    private val defaultKeys = mutableMapOf<String, Int>()
+    private const val MODIFIER_MASK = GLFW.GLFW_MOD_SHIFT or GLFW.GLFW_MOD_CONTROL or GLFW.GLFW_MOD_ALT or GLFW.GLFW_MOD_SUPER
+    private const val MODIFIER_SHIFT = 16
+
+    private class Binding(val keyBinding: KeyBinding, val defaultKey: Int, val context: KeyContext) {
+        var modifiers = 0
+        var actions: Array<() -> Unit> = emptyArray()
+    }
+
+    private val keybindings = LinkedHashMap<String, Binding>()
+    // Bindings by bound key code; rebuilt whenever a key changes (see KeyBindingMixin).
+    @Volatile private var table = arrayOfNulls<Array<Binding>>(GLFW.GLFW_KEY_LAST + 1)
     private val json = Json { prettyPrint = true; ignoreUnknownKeys = true }
-    private val configDir = Paths.get("config", "cinnamon").toFile()
-    private val configFile = File(configDir, "keybindings.json")
+    private val legacyConfigFile = File(Paths.get("config", "cinnamon").toFile(), "keybindings.json")
+    private val store = ConfigStore.namespace("keybindings", Int.serializer())
 
     @Serializable
     data class KeybindingConfig(val name: String, val key: Int)
 
-    fun registerKeybinding(name: String, key: Int, category: String = "CinnamonClient"): KeyBinding {
+    fun registerKeybinding(
+        name: String,
+        key: Int,
+        category: String = "CinnamonClient",
+        context: KeyContext = KeyContext.IN_GAME
+    ): KeyBinding {
         val keyBinding = KeyBindingHelper.registerKeyBinding(
             KeyBinding(
                 name,
@@ -33,73 +63,153 @@ object KeybindingManager {
                 category
             )
         )
-        keybindings[name] = keyBinding
-        defaultKeys[name] = key
+        keybindings[name] = Binding(keyBinding, key, context)
+        rebuildTable()
         return keyBinding
     }
 
+    /** Runs [action] on the client thread whenever the binding [name] is pressed in its context. */
+    fun onAction(name: String, action: () -> Unit) {
+        val binding = keybindings[name] ?: return
+        binding.actions = binding.actions + action
+    }
+
     fun getKeybinding(name: String): KeyBinding? {
-        return keybindings[name]
+        return keybindings[name]?.keyBinding
     }
 
-    fun getAllKeybindings(): Map<String, KeyBinding> = keybindings.toMap()
+    fun getAllKeybindings(): Map<String, KeyBinding> = keybindings.mapValues { it.value.keyBinding }
 
-    fun resetAll() {
-        defaultKeys.forEach { (name, key) ->
-            updateKeybinding(name, key)
-        }
+    fun getModifiers(name: String): Int = keybindings[name]?.modifiers ?: 0
+
+    /** The bound key as shown to the player, e.g. "Ctrl+X"; "None" when unbound. */
+    fun describe(name: String): String {
+        val binding = keybindings[name] ?: return "None"
+        val key = KeyBindingHelper.getBoundKeyOf(binding.keyBinding)
+        if (key == InputUtil.UNKNOWN_KEY) return "None"
+        val parts = mutableListOf<String>()
+        if (binding.modifiers and GLFW.GLFW_MOD_CONTROL != 0) parts.add("Ctrl")
+        if (binding.modifiers and GLFW.GLFW_MOD_SHIFT != 0) parts.add("Shift")
+        if (binding.modifiers and GLFW.GLFW_MOD_ALT != 0) parts.add("Alt")
+        if (binding.modifiers and GLFW.GLFW_MOD_SUPER != 0) parts.add("Super")
+        parts.add(key.localizedText.string)
+        return parts.joinToString("+")
     }
 
-    fun isPressed(name: String): Boolean {
-        return keybindings[name]?.isPressed ?: false
+    fun resetAll() {
+        keybindings.values.forEach { setKey(it, it.defaultKey, 0) }
+        KeyBinding.updateKeysByCode()
+        saveKeybindings()
     }
 
-    fun wasPressed(name: String): Boolean {
-        return keybindings[name]?.wasPressed() ?: false
+    fun isPressed(name: String): Boolean {
+        return keybindings[name]?.keyBinding?.isPressed ?: false
     }
 
     fun initialize() {
-        registerKeybinding("cinnamon.toggle_autoclicker", GLFW.GLFW_KEY_UNKNOWN, "Modules")
-        registerKeybinding("cinnamon.toggle_fullbright", GLFW.GLFW_KEY_UNKNOWN, "Modules")
-        registerKeybinding("cinnamon.toggle_calculator", GLFW.GLFW_KEY_UNKNOWN, "Modules")
-        registerKeybinding("cinnamon.toggle_chatprefix", GLFW.GLFW_KEY_UNKNOWN, "Modules")
+        ModuleManager.getModules().forEach { module ->
+            val name = module.keybinding ?: return@forEach
+            registerKeybinding(name, module.defaultKey, "Modules")
+            onAction(name) { module.toggle() }
+        }
+        registerKeybinding("key.cinnamon.open_gui", GLFW.GLFW_KEY_RIGHT_SHIFT)
+        onAction("key.cinnamon.open_gui") { CinnamonGuiManager.openModulesScreen() }
         registerKeybinding("cinnamon.open_saved_gui", GLFW.GLFW_KEY_V)
+        onAction("cinnamon.open_saved_gui") {
+            val storedScreen = code.cinnamon.SharedVariables.storedScreen
+            if (storedScreen is Screen) {
+                MinecraftClient.getInstance().setScreen(storedScreen)
+            }
+        }
         loadKeybindings()
     }
 
-    fun updateKeybinding(name: String, newKey: Int) {
+    fun updateKeybinding(name: String, newKey: Int, modifiers: Int = 0) {
         keybindings[name]?.let {
-            it.setBoundKey(InputUtil.Type.KEYSYM.createFromCode(newKey))
+            setKey(it, newKey, modifiers)
             KeyBinding.updateKeysByCode()
             saveKeybindings()
         }
     }
 
+    /** Called from KeyboardMixin for every key press; only the bindings on [key] are looked at. */
+    fun onKeyPressed(key: Int, modifiers: Int, inScreen: Boolean) {
+        val table = table
+        if (key < 0 || key >= table.size) return
+        val slot = table[key] ?: return
+        val held = modifiers and MODIFIER_MASK
+        // A matching combo (Ctrl+X) shadows a plain binding on the same key (X).
+        var comboFired = false
+        for (binding in slot) {
+            if (binding.modifiers != 0 && binding.modifiers == held && matches(binding.context, inScreen)) {
+                fire(binding)
+                comboFired = true
+            }
+        }
+        if (comboFired) return
+        for (binding in slot) {
+            if (binding.modifiers == 0 && matches(binding.context, inScreen)) fire(binding)
+        }
+    }
+
+    /** Regroups bindings by their current key; cheap, and only run when keys change. */
+    fun rebuildTable() {
+        val byKey = arrayOfNulls<MutableList<Binding>>(GLFW.GLFW_KEY_LAST + 1)
+        for (binding in keybindings.values) {
+            val key = KeyBindingHelper.getBoundKeyOf(binding.keyBinding)
+            if (key.category != InputUtil.Type.KEYSYM || key.code < 0 || key.code >= byKey.size) continue
+            (byKey[key.code] ?: mutableListOf<Binding>().also { byKey[key.code] = it }).add(binding)
+        }
+        val next = arrayOfNulls<Array<Binding>>(byKey.size)
+        for (i in byKey.indices) next[i] = byKey[i]?.toTypedArray()
+        table = next
+    }
+
     fun saveKeybindings() {
         try {
-            configDir.mkdirs()
-            println("[KeybindingManager] Saved keybindings")
-            val configs = keybindings.map { (name, keyBinding) ->
-                KeybindingConfig(name, KeyBindingHelper.getBoundKeyOf(keyBinding).code)
+            keybindings.forEach { (name, binding) ->
+                store.put(name, pack(KeyBindingHelper.getBoundKeyOf(binding.keyBinding).code, binding.modifiers))
             }
-            val jsonString = json.encodeToString(configs)
-            configFile.writeText(jsonString)
         } catch (e: Exception) {
             println("[KeybindingManager] Failed to save keybindings: ${e.message}")
         }
     }
 
+    private fun matches(context: KeyContext, inScreen: Boolean): Boolean = when (context) {
+        KeyContext.ANY -> true
+        KeyContext.IN_GAME -> !inScreen
+        KeyContext.IN_SCREEN -> inScreen
+    }
+
+    private fun fire(binding: Binding) {
+        for (action in binding.actions) action()
+    }
+
+    private fun setKey(binding: Binding, key: Int, modifiers: Int) {
+        binding.keyBinding.setBoundKey(InputUtil.Type.KEYSYM.createFromCode(key))
+        binding.modifiers = if (key < 0) 0 else modifiers and MODIFIER_MASK
+    }
+
+    private fun pack(key: Int, modifiers: Int): Int = if (key < 0) key else key or (modifiers shl MODIFIER_SHIFT)
+
     private fun loadKeybindings() {
-        if (!configFile.exists()) return
+        store.importLegacy(legacyConfigFile) { legacyJson ->
+            json.decodeFromString<List<KeybindingConfig>>(legacyJson).forEach { store.put(it.name, it.key) }
+        }
 
         try {
-            val jsonString = configFile.readText()
-            val configs = json.decodeFromString<List<KeybindingConfig>>(jsonString)
-            configs.forEach { config ->
-                updateKeybinding(config.name, config.key)
+            // Apply every stored key first, then refresh vanilla's key map once; nothing needs saving.
+            store.entries().forEach { (name, packed) ->
+                val binding = keybindings[name] ?: return@forEach
+                if (packed < 0) {
+                    setKey(binding, packed, 0)
+                } else {
+                    setKey(binding, packed and ((1 shl MODIFIER_SHIFT) - 1), packed ushr MODIFIER_SHIFT)
+                }
             }
+            KeyBinding.updateKeysByCode()
         } catch (e: Exception) {
             println("[KeybindingManager] Failed to load keybindings: ${e.message}")
         }
     }
-}
\ No newline at end of file
+}
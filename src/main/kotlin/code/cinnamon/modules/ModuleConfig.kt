@@ -1,8 +1,11 @@
 package code.cinnamon.modules
 
+import code.cinnamon.config.ConfigStore
+import code.cinnamon.events.CinnamonEvents
 import kotlinx.serialization.Serializable
+import kotlinx.serialization.builtins.serializer
 import kotlinx.serialization.json.Json
-import kotlinx.serialization.encodeToString
+import kotlinx.serialization.json.JsonObject
 import kotlinx.serialization.decodeFromString
 import java.io.File
 import java.nio.file.Paths
@@ -20,55 +23,68 @@ data class ModulesConfig(
 
 object ModuleConfigManager {
     private val json = Json { prettyPrint = true; ignoreUnknownKeys = true }
-    private val configDir = Paths.get("config", "cinnamon").toFile()
-    private val modulesFile = File(configDir, "modules.json")
-
-    init {
-        if (!configDir.exists()) {
-            configDir.mkdirs()
-        }
-    }
+    private val legacyModulesFile = File(Paths.get("config", "cinnamon").toFile(), "modules.json")
+    private val store = ConfigStore.namespace("modules", Boolean.serializer())
+    private val settingsStore = ConfigStore.namespace("module_settings", JsonObject.serializer())
+    private var checkedSettingsStamp = 0L
 
     fun saveModules() {
         try {
-            val moduleStates = ModuleManager.getModules().map { module ->
-                ModuleState(module.name, module.isEnabled)
+            ModuleManager.getModules().forEach { module ->
+                store.put(module.name, module.isEnabled)
             }
-            val config = ModulesConfig(moduleStates)
-            
-            val jsonString = json.encodeToString(config)
-            modulesFile.writeText(jsonString)
-            println("[ModuleConfigManager] Modules state saved successfully to ${modulesFile.absolutePath}")
         } catch (e: Exception) {
             println("[ModuleConfigManager] Failed to save modules state: ${e.message}")
             e.printStackTrace()
         }
     }
 
+    /** Stores the settings of every module whose settings changed since [since]. */
+    private fun saveSettings(since: Long) {
+        ModuleManager.getModules().forEach { module ->
+            if (module.settings.latestStamp() > since) {
+                settingsStore.put(module.name, SettingsCodec.encode(module.settings))
+            }
+        }
+    }
+
     fun loadModules() {
+        // Settings first, so modules enabled below start with their saved values.
+        settingsStore.entries().forEach { (name, data) ->
+            ModuleManager.getModule(name)?.let { SettingsCodec.decode(it.settings, data) }
+        }
+        checkedSettingsStamp = SettingStamps.current()
+        CinnamonEvents.TICK.subscribe(CinnamonEvents.TickListener {
+            val current = SettingStamps.current()
+            if (current != checkedSettingsStamp) {
+                saveSettings(checkedSettingsStamp)
+                checkedSettingsStamp = current
+            }
+        })
+
+        store.importLegacy(legacyModulesFile) { legacyJson ->
+            json.decodeFromString<ModulesConfig>(legacyJson).modules.forEach { store.put(it.name, it.isEnabled) }
+        }
+
         try {
-            if (!modulesFile.exists()) {
-                println("[ModuleConfigManager] Modules file does not exist. No module states loaded.")
+            if (store.isEmpty()) {
+                println("[ModuleConfigManager] No saved module states. No module states loaded.")
                 return
             }
 
-            val jsonString = modulesFile.readText()
-            val config = json.decodeFromString<ModulesConfig>(jsonString)
-
-            config.modules.forEach { moduleState ->
-                val module = ModuleManager.getModule(moduleState.name)
+            store.entries().forEach { (name, isEnabled) ->
+                val module = ModuleManager.getModule(name)
                 if (module != null) {
-                    val wasEnabled = module.isEnabled 
-                    if (moduleState.isEnabled) {
-                        module.enable(fromLoad = true) 
+                    if (isEnabled) {
+                        module.enable(fromLoad = true)
                     } else {
                         module.disable(fromLoad = true)
                     }
                 } else {
-                    println("[ModuleConfigManager] Found state for unknown module: ${moduleState.name}")
+                    println("[ModuleConfigManager] Found state for unknown module: $name")
                 }
             }
-            println("[ModuleConfigManager] Modules state loaded successfully from ${modulesFile.absolutePath}")
+            println("[ModuleConfigManager] Modules state loaded successfully")
         } catch (e: Exception) {
             println("[ModuleConfigManager] Failed to load modules state: ${e.message}")
             e.printStackTrace()
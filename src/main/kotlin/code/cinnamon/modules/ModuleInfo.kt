@@ -0,0 +1,34 @@
+package code.cinnamon.modules
+
+enum class ModuleCategory(val displayName: String) {
+    COMBAT("Combat"),
+    MOVEMENT("Movement"),
+    RENDER("Render"),
+    PLAYER("Player"),
+    WORLD("World")
+}
+
+/**
+ * Declares a module for the build-time module index. The generateModuleIndex Gradle task reads
+ * these from the sources under modules/all and emits GeneratedModuleIndex, so modules are
+ * constructed directly at startup instead of being found by a classpath scan.
+ *
+ * The arguments are copied into the generated [ModuleIndexEntry] call with imported names made
+ * fully qualified, so use named arguments with constants that are imported explicitly (not through
+ * a star import). A non-abstract Module subclass without the annotation fails the build.
+ */
+@Target(AnnotationTarget.CLASS)
+@Retention(AnnotationRetention.SOURCE)
+annotation class ModuleInfo(
+    val category: ModuleCategory,
+    val keybinding: String = "",
+    val defaultKey: Int = -1
+)
+
+/** One module in the generated index; [keybinding] names its toggle keybinding, if it has one. */
+class ModuleIndexEntry(
+    val category: ModuleCategory,
+    val keybinding: String = "",
+    val defaultKey: Int = -1,
+    val factory: () -> Module
+)
@@ -1,52 +1,102 @@
 package code.cinnamon.modules
 
-import org.reflections.Reflections
-import org.reflections.scanners.Scanners
+import code.cinnamon.events.EventChannel
 import org.slf4j.LoggerFactory
+import java.util.concurrent.atomic.AtomicLongArray
 
 object ModuleManager {
-    private val modules = mutableListOf<Module>()
     private val logger = LoggerFactory.getLogger("cinnamon")
 
+    // Registration happens on the client thread at startup; readers only ever see whole snapshots.
+    @Volatile private var modules: List<Module> = emptyList()
+    @Volatile private var byName: Map<String, Module> = emptyMap()
+    @Volatile private var byType: Map<Class<*>, Module> = emptyMap()
+    // Enabled state by module id, one bit per module, so hot paths can check it without a lookup.
+    @Volatile private var enabledBits = AtomicLongArray(1)
+
     fun registerModule(module: Module) {
-        modules.add(module)
+        module.id = modules.size
+        if (module.id >= enabledBits.length() * 64) {
+            val grown = AtomicLongArray(enabledBits.length() * 2)
+            for (i in 0 until enabledBits.length()) grown.set(i, enabledBits.get(i))
+            enabledBits = grown
+        }
+        setEnabledBit(module.id, module.isEnabled)
+        byName = byName + (module.name to module)
+        byType = byType + (module.javaClass to module)
+        modules = java.util.Collections.unmodifiableList(modules + module)
     }
 
-    fun getModules(): List<Module> = modules.toList()
-    fun getModule(name: String): Module? = modules.find { it.name == name }
+    /** Immutable snapshot of the registered modules; only rebuilt when a module is registered. */
+    fun getModules(): List<Module> = modules
+    fun getModule(name: String): Module? = byName[name]
     fun enableModule(name: String) = getModule(name)?.enable()
     fun disableModule(name: String) = getModule(name)?.disable()
     fun toggleModule(name: String) = getModule(name)?.toggle()
-    fun getEnabledModules(): List<Module> = modules.filter { it.isEnabled }
-
+    fun getEnabledModules(): List<Module> = modules.filter { isEnabled(it.id) }
 
     fun isModuleEnabled(name: String): Boolean = getModule(name)?.isEnabled ?: false
 
-    fun initialize() {
-        val reflections = Reflections("code.cinnamon.modules.all", Scanners.SubTypes)
-        val moduleClasses = reflections.getSubTypesOf(Module::class.java)
+    /** A handle that resolves [type] once and then answers [ModuleHandle.isEnabled] with a single bit read. */
+    fun <T : Module> handle(type: Class<T>): ModuleHandle<T> = ModuleHandle(type)
+
+    internal fun <T : Module> find(type: Class<T>): T? = byType[type]?.let(type::cast)
+
+    internal fun isEnabled(id: Int): Boolean {
+        val bits = enabledBits
+        return id >= 0 && (bits.get(id ushr 6) and (1L shl id)) != 0L
+    }
 
-        for (moduleClass in moduleClasses) {
+    internal fun setEnabledBit(id: Int, enabled: Boolean) {
+        if (id < 0) return
+        val mask = 1L shl id
+        enabledBits.getAndUpdate(id ushr 6) { word -> if (enabled) word or mask else word and mask.inv() }
+    }
+
+    /** Constructs every module in the build-time index; touches no shared state, so it can run off-thread. */
+    fun discoverModules(): List<Module> {
+        val discovered = mutableListOf<Module>()
+        for (entry in GeneratedModuleIndex.entries) {
             try {
-                val constructor = moduleClass.getConstructor()
-                val module = constructor.newInstance()
-                registerModule(module)
-                logger.info("Registered module: ${module.name}")
+                val module = entry.factory()
+                module.category = entry.category
+                module.keybinding = entry.keybinding.ifEmpty { null }
+                module.defaultKey = entry.defaultKey
+                discovered.add(module)
             } catch (e: Exception) {
-                logger.error("Failed to register module: ${moduleClass.simpleName}", e)
+                logger.error("Failed to register module from index entry (${entry.category.displayName})", e)
             }
         }
+        return discovered
+    }
+
+    fun registerModules(discovered: List<Module>) {
+        for (module in discovered) {
+            registerModule(module)
+            logger.info("Registered module: ${module.name}")
+        }
     }
 }
 
 abstract class Module(val name: String, val description: String) {
     val settings = mutableListOf<Setting<*>>()
-    var isEnabled = false
+    var category: ModuleCategory = ModuleCategory.PLAYER
+        internal set
+    var keybinding: String? = null
+        internal set
+    var defaultKey: Int = -1
+        internal set
+    /** Index assigned on registration; -1 until then. */
+    var id: Int = -1
+        internal set
+    @Volatile var isEnabled = false
         private set
+    private val subscriptions = mutableListOf<Pair<EventChannel<*>, Any>>()
 
     open fun enable(fromLoad: Boolean = false) {
         if (!isEnabled) {
             isEnabled = true
+            ModuleManager.setEnabledBit(id, true)
             onEnable()
             if (!fromLoad) {
                 ModuleConfigManager.saveModules()
@@ -56,7 +106,9 @@ abstract class Module(val name: String, val description: String) {
     open fun disable(fromLoad: Boolean = false) {
         if (isEnabled) {
             isEnabled = false
+            ModuleManager.setEnabledBit(id, false)
             onDisable()
+            unsubscribeAll()
             if (!fromLoad) {
                 ModuleConfigManager.saveModules()
             }
@@ -67,4 +119,33 @@ abstract class Module(val name: String, val description: String) {
     }
     protected abstract fun onEnable()
     protected abstract fun onDisable()
-}
\ No newline at end of file
+
+    /** Listens on [channel] until this module is next disabled; meant to be called from [onEnable]. */
+    protected fun <L : Any> subscribe(channel: EventChannel<L>, listener: L) {
+        channel.subscribe(listener)
+        subscriptions.add(channel to listener)
+    }
+
+    private fun unsubscribeAll() {
+        for ((channel, listener) in subscriptions) {
+            @Suppress("UNCHECKED_CAST")
+            (channel as EventChannel<Any>).unsubscribe(listener)
+        }
+        subscriptions.clear()
+    }
+}
+
+/**
+ * Typed reference to a registered module, meant to be created once and kept in a static final
+ * field (e.g. by mixins). The module is looked up on first use after registration and cached.
+ */
+class ModuleHandle<T : Module> internal constructor(private val type: Class<T>) {
+    @Volatile private var module: T? = null
+
+    fun get(): T? = module ?: ModuleManager.find(type)?.also { module = it }
+
+    fun isEnabled(): Boolean {
+        val resolved = module ?: get() ?: return false
+        return ModuleManager.isEnabled(resolved.id)
+    }
+}
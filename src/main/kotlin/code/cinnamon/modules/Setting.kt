@@ -1,14 +1,208 @@
 package code.cinnamon.modules
 
-sealed class Setting<T>(val name: String, var value: T, val callback: ((T) -> Unit)? = null) {
-    fun set(newValue: T) {
-        this.value = newValue
+import kotlinx.serialization.json.JsonElement
+import kotlinx.serialization.json.JsonPrimitive
+import kotlinx.serialization.json.booleanOrNull
+import kotlinx.serialization.json.contentOrNull
+import kotlinx.serialization.json.doubleOrNull
+import kotlinx.serialization.json.intOrNull
+import java.util.concurrent.atomic.AtomicLong
+
+/**
+ * Source of setting change stamps. Every change to any setting takes the next value, so a reader
+ * that remembers [current] (or a setting's [Setting.stamp]) can tell with one long compare whether
+ * anything changed since it last looked.
+ */
+object SettingStamps {
+    private val counter = AtomicLong()
+
+    fun current(): Long = counter.get()
+
+    internal fun next(): Long = counter.incrementAndGet()
+}
+
+/**
+ * A named, user-editable value. Subclasses keep their value unboxed; [value] is the boxed view for
+ * code that handles settings generically. Assigning [value] changes the setting quietly, while
+ * [set] also runs the callback. Both bump [stamp] when the value actually changes.
+ *
+ * A setting is also its own schema entry for [SettingsCodec]: it is stored under [id] (derived from
+ * the name unless overridden with [withId]) at [version], and only when it differs from its default.
+ */
+sealed class Setting<T>(val name: String) {
+    @Volatile
+    var stamp: Long = 0L
+        private set
+
+    var id: String = name.lowercase().replace(NON_ID_CHARS, "_").trim('_')
+        private set
+    var version: Int = 1
+        private set
+    internal var migration: ((JsonElement, Int) -> JsonElement?)? = null
+        private set
+
+    abstract var value: T
+
+    abstract val defaultValue: T
+
+    abstract fun set(newValue: T)
+
+    fun isDefault(): Boolean = value == defaultValue
+
+    protected fun touch() {
+        stamp = SettingStamps.next()
+    }
+
+    internal abstract fun encode(): JsonElement
+
+    /** Assigns a stored value quietly; returns false if it does not fit this setting. */
+    internal abstract fun decode(element: JsonElement): Boolean
+
+    internal fun assignId(id: String) {
+        this.id = id
+    }
+
+    internal fun assignVersion(version: Int, migrate: (JsonElement, Int) -> JsonElement?) {
+        this.version = version
+        this.migration = migrate
+    }
+
+    private companion object {
+        val NON_ID_CHARS = Regex("[^a-z0-9]+")
+    }
+}
+
+/** Stores this setting under [id] instead of the one derived from its name, e.g. to allow renaming it. */
+fun <S : Setting<*>> S.withId(id: String): S = apply { assignId(id) }
+
+/**
+ * Bumps the stored format of this setting to [version]. Values saved under an older version are
+ * passed to [migrate] with that version; returning null drops them in favour of the default.
+ */
+fun <S : Setting<*>> S.withVersion(version: Int, migrate: (JsonElement, Int) -> JsonElement?): S =
+    apply { assignVersion(version, migrate) }
+
+/** Stamp of the most recent change to any of these settings. */
+fun List<Setting<*>>.latestStamp(): Long {
+    var latest = 0L
+    for (i in indices) {
+        val stamp = this[i].stamp
+        if (stamp > latest) latest = stamp
+    }
+    return latest
+}
+
+open class BooleanSetting(name: String, value: Boolean, private val callback: ((Boolean) -> Unit)? = null) : Setting<Boolean>(name) {
+    var booleanValue: Boolean = value
+        private set
+
+    override val defaultValue: Boolean = value
+
+    override var value: Boolean
+        get() = booleanValue
+        set(newValue) {
+            if (newValue == booleanValue) return
+            booleanValue = newValue
+            touch()
+        }
+
+    override fun set(newValue: Boolean) {
+        value = newValue
+        callback?.invoke(newValue)
+    }
+
+    override fun encode(): JsonElement = JsonPrimitive(booleanValue)
+
+    override fun decode(element: JsonElement): Boolean {
+        value = (element as? JsonPrimitive)?.booleanOrNull ?: return false
+        return true
+    }
+}
+
+class LookAtHudSetting(name: String, value: Boolean, callback: ((Boolean) -> Unit)? = null) : BooleanSetting(name, value, callback)
+
+class DoubleSetting(
+    name: String,
+    value: Double,
+    val min: Double,
+    val max: Double,
+    val step: Double,
+    private val callback: ((Double) -> Unit)? = null
+) : Setting<Double>(name) {
+    var doubleValue: Double = value
+        private set
+
+    override val defaultValue: Double = value
+
+    override var value: Double
+        get() = doubleValue
+        set(newValue) {
+            if (newValue == doubleValue) return
+            doubleValue = newValue
+            touch()
+        }
+
+    override fun set(newValue: Double) {
+        value = newValue
         callback?.invoke(newValue)
     }
+
+    override fun encode(): JsonElement = JsonPrimitive(doubleValue)
+
+    override fun decode(element: JsonElement): Boolean {
+        value = ((element as? JsonPrimitive)?.doubleOrNull ?: return false).coerceIn(min, max)
+        return true
+    }
 }
 
-class BooleanSetting(name: String, value: Boolean, callback: ((Boolean) -> Unit)? = null) : Setting<Boolean>(name, value, callback)
-class LookAtHudSetting(name: String, value: Boolean, callback: ((Boolean) -> Unit)? = null) : Setting<Boolean>(name, value, callback)
-class DoubleSetting(name: String, value: Double, val min: Double, val max: Double, val step: Double, callback: ((Double) -> Unit)? = null) : Setting<Double>(name, value, callback)
-class ColorSetting(name: String, value: Int, callback: ((Int) -> Unit)? = null) : Setting<Int>(name, value, callback)
-class ModeSetting(name: String, value: String, val modes: List<String>, callback: ((String) -> Unit)? = null) : Setting<String>(name, value, callback)
+class ColorSetting(name: String, value: Int, private val callback: ((Int) -> Unit)? = null) : Setting<Int>(name) {
+    var colorValue: Int = value
+        private set
+
+    override val defaultValue: Int = value
+
+    override var value: Int
+        get() = colorValue
+        set(newValue) {
+            if (newValue == colorValue) return
+            colorValue = newValue
+            touch()
+        }
+
+    override fun set(newValue: Int) {
+        value = newValue
+        callback?.invoke(newValue)
+    }
+
+    override fun encode(): JsonElement = JsonPrimitive(colorValue)
+
+    override fun decode(element: JsonElement): Boolean {
+        value = (element as? JsonPrimitive)?.intOrNull ?: return false
+        return true
+    }
+}
+
+class ModeSetting(name: String, value: String, val modes: List<String>, private val callback: ((String) -> Unit)? = null) : Setting<String>(name) {
+    override val defaultValue: String = value
+
+    override var value: String = value
+        set(newValue) {
+            if (newValue == field) return
+            field = newValue
+            touch()
+        }
+
+    override fun set(newValue: String) {
+        value = newValue
+        callback?.invoke(newValue)
+    }
+
+    override fun encode(): JsonElement = JsonPrimitive(value)
+
+    override fun decode(element: JsonElement): Boolean {
+        val mode = (element as? JsonPrimitive)?.contentOrNull ?: return false
+        if (mode !in modes) return false
+        value = mode
+        return true
+    }
+}
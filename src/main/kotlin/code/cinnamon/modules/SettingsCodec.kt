@@ -0,0 +1,45 @@
+package code.cinnamon.modules
+
+import kotlinx.serialization.json.JsonElement
+import kotlinx.serialization.json.JsonObject
+import kotlinx.serialization.json.JsonPrimitive
+import kotlinx.serialization.json.intOrNull
+
+/**
+ * Encodes a list of settings (their schema) to a compact typed JSON object: one entry per setting
+ * that differs from its default, keyed by [Setting.id], plus a "\$versions" map for settings above
+ * version 1. Decoding is a single pass over the schema; absent entries keep their current value and
+ * entries from an older version go through the setting's migration first.
+ */
+object SettingsCodec {
+    private const val VERSIONS_KEY = "\$versions"
+
+    fun encode(settings: List<Setting<*>>): JsonObject {
+        val entries = LinkedHashMap<String, JsonElement>()
+        var versions: LinkedHashMap<String, JsonPrimitive>? = null
+        for (setting in settings) {
+            if (setting.isDefault()) continue
+            entries[setting.id] = setting.encode()
+            if (setting.version != 1) {
+                if (versions == null) versions = LinkedHashMap()
+                versions[setting.id] = JsonPrimitive(setting.version)
+            }
+        }
+        if (versions != null) entries[VERSIONS_KEY] = JsonObject(versions)
+        return JsonObject(entries)
+    }
+
+    fun decode(settings: List<Setting<*>>, data: JsonObject) {
+        val versions = data[VERSIONS_KEY] as? JsonObject
+        for (setting in settings) {
+            var element = data[setting.id] ?: continue
+            val storedVersion = (versions?.get(setting.id) as? JsonPrimitive)?.intOrNull ?: 1
+            if (storedVersion != setting.version) {
+                element = setting.migration?.invoke(element, storedVersion) ?: continue
+            }
+            if (!setting.decode(element)) {
+                println("[SettingsCodec] Ignoring stored value for '${setting.id}' that does not fit its type")
+            }
+        }
+    }
+}
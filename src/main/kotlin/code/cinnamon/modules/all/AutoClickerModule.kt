@@ -1,6 +1,8 @@
 package code.cinnamon.modules.all
 
 import code.cinnamon.modules.Module
+import code.cinnamon.modules.ModuleCategory
+import code.cinnamon.modules.ModuleInfo
 import code.cinnamon.util.AutoClickerAccess
 import net.minecraft.client.MinecraftClient
 import java.util.concurrent.Executors
@@ -16,6 +18,7 @@ import kotlin.math.abs
 import code.cinnamon.modules.BooleanSetting
 import code.cinnamon.modules.DoubleSetting
 
+@ModuleInfo(category = ModuleCategory.COMBAT, keybinding = "cinnamon.toggle_autoclicker")
 class AutoclickerModule : Module("AutoClicker", "Simulates realistic mouse clicks using advanced timing patterns") {
 
     private var executor: ScheduledExecutorService? = null
@@ -81,23 +84,23 @@ class AutoclickerModule : Module("AutoClicker", "Simulates realistic mouse click
 
     private val currentTargetCPS: Float
         get() {
-            if (minCPSSetting.value >= maxCPSSetting.value) return minCPSSetting.value.toFloat()
+            if (minCPSSetting.doubleValue >= maxCPSSetting.doubleValue) return minCPSSetting.doubleValue.toFloat()
 
             val fatigueMultiplier = 1.0f - (fatigueLevel * 0.3f)
-            val baseCPS = Random.nextFloat() * (maxCPSSetting.value - minCPSSetting.value) + minCPSSetting.value
+            val baseCPS = Random.nextFloat() * (maxCPSSetting.doubleValue - minCPSSetting.doubleValue) + minCPSSetting.doubleValue
 
-            return (baseCPS * fatigueMultiplier).toFloat().coerceIn((minCPSSetting.value * 0.5f).toFloat(), maxCPSSetting.value.toFloat())
+            return (baseCPS * fatigueMultiplier).toFloat().coerceIn((minCPSSetting.doubleValue * 0.5f).toFloat(), maxCPSSetting.doubleValue.toFloat())
         }
 
     override fun onEnable() {
-        println("AutoClicker: Module enabled with CPS range ${minCPSSetting.value}-${maxCPSSetting.value}")
+        println("AutoClicker: Module enabled with CPS range ${minCPSSetting.doubleValue}-${maxCPSSetting.doubleValue}")
         sessionStartTime = System.currentTimeMillis()
         totalClicks = 0
         resetInternalState()
 
         try {
             startAutoClicker()
-            println("AutoClicker: Started successfully with humanization ${if (enableHumanizationSetting.value) "enabled" else "disabled"}")
+            println("AutoClicker: Started successfully with humanization ${if (enableHumanizationSetting.booleanValue) "enabled" else "disabled"}")
         } catch (e: Exception) {
             println("AutoClicker: Error starting module: ${e.message}")
             disable()
@@ -178,7 +181,7 @@ class AutoclickerModule : Module("AutoClicker", "Simulates realistic mouse click
     private fun calculateNextDelay(): Long {
         val currentTime = System.currentTimeMillis()
 
-        if (enableHumanizationSetting.value && microPausesSetting.value && Random.nextFloat() < MICRO_PAUSE_CHANCE) {
+        if (enableHumanizationSetting.booleanValue && microPausesSetting.booleanValue && Random.nextFloat() < MICRO_PAUSE_CHANCE) {
             val pauseTime = Random.nextLong(MICRO_PAUSE_MIN_MS, MICRO_PAUSE_MAX_MS + 1)
             println("AutoClicker: Micro pause for ${pauseTime}ms")
             return pauseTime
@@ -187,16 +190,16 @@ class AutoclickerModule : Module("AutoClicker", "Simulates realistic mouse click
         val targetCPS = currentTargetCPS
         val baseInterval = (1000.0f / targetCPS).toLong()
 
-        if (!enableHumanizationSetting.value) {
+        if (!enableHumanizationSetting.booleanValue) {
             return max(10L, baseInterval)
         }
 
         var finalInterval = baseInterval
 
-        val normalVariance = generateNormalVariance() * timingVarianceSetting.value
+        val normalVariance = generateNormalVariance() * timingVarianceSetting.doubleValue
         finalInterval = (finalInterval * (1.0f + normalVariance)).toLong()
 
-        if (burstModeSetting.value) {
+        if (burstModeSetting.booleanValue) {
             finalInterval = applyBurstTiming(finalInterval)
         }
 
@@ -227,7 +230,7 @@ class AutoclickerModule : Module("AutoClicker", "Simulates realistic mouse click
                 isInBurst = false
             }
 
-            val burstMultiplier = 0.6f + (Random.nextFloat() * burstVarianceSetting.value)
+            val burstMultiplier = 0.6f + (Random.nextFloat() * burstVarianceSetting.doubleValue)
             return (baseInterval * burstMultiplier).toLong()
         }
 
@@ -253,14 +256,14 @@ class AutoclickerModule : Module("AutoClicker", "Simulates realistic mouse click
     }
 
     private fun updateFatigue() {
-        if (!fatigueEnabledSetting.value) return
+        if (!fatigueEnabledSetting.booleanValue) return
 
         consecutiveClicks++
 
         if (consecutiveClicks > FATIGUE_THRESHOLD) {
-            fatigueLevel = min(MAX_FATIGUE, fatigueLevel + fatigueRateSetting.value.toFloat())
+            fatigueLevel = min(MAX_FATIGUE, fatigueLevel + fatigueRateSetting.doubleValue.toFloat())
         } else {
-            fatigueLevel = max(0.0f, fatigueLevel - (fatigueRateSetting.value.toFloat() * 0.2f))
+            fatigueLevel = max(0.0f, fatigueLevel - (fatigueRateSetting.doubleValue.toFloat() * 0.2f))
         }
     }
 
@@ -292,16 +295,16 @@ class AutoclickerModule : Module("AutoClicker", "Simulates realistic mouse click
 
             if (!isValidGameState(client)) return
 
-            if (onlyWhileHoldingSetting.value && !isHoldingClickKey(client)) return
+            if (onlyWhileHoldingSetting.booleanValue && !isHoldingClickKey(client)) return
 
             val currentTime = System.currentTimeMillis()
 
             client.execute {
-                if (leftClickEnabledSetting.value) {
+                if (leftClickEnabledSetting.booleanValue) {
                     AutoClickerAccess.triggerLeftClick()
                 }
 
-                if (rightClickEnabledSetting.value) {
+                if (rightClickEnabledSetting.booleanValue) {
                     AutoClickerAccess.triggerRightClick()
                 }
 
@@ -328,8 +331,8 @@ class AutoclickerModule : Module("AutoClicker", "Simulates realistic mouse click
     }
 
     private fun isHoldingClickKey(client: MinecraftClient): Boolean {
-        return (leftClickEnabledSetting.value && client.options.attackKey.isPressed) ||
-                (rightClickEnabledSetting.value && client.options.useKey.isPressed)
+        return (leftClickEnabledSetting.booleanValue && client.options.attackKey.isPressed) ||
+                (rightClickEnabledSetting.booleanValue && client.options.useKey.isPressed)
     }
 
 
@@ -355,11 +358,11 @@ class AutoclickerModule : Module("AutoClicker", "Simulates realistic mouse click
         return buildString {
             append("AutoClicker: ${if (isEnabled) "ON" else "OFF"}")
             if (isEnabled) {
-                append(" | Range: %.1f-%.1f CPS".format(minCPSSetting.value, maxCPSSetting.value))
+                append(" | Range: %.1f-%.1f CPS".format(minCPSSetting.doubleValue, maxCPSSetting.doubleValue))
                 append(" | Current: %.1f CPS".format(getCurrentCPS()))
                 append(" | Clicks: $totalClicks")
                 append(" | Avg: %.1f CPS".format(getSessionCPS()))
-                if (enableHumanizationSetting.value) {
+                if (enableHumanizationSetting.booleanValue) {
                     append(" | Fatigue: %.0f%%".format(fatigueLevel * 100))
                     if (isInBurst) append(" | BURST")
                 }
@@ -371,21 +374,21 @@ class AutoclickerModule : Module("AutoClicker", "Simulates realistic mouse click
         return buildString {
             appendLine("=== AutoClicker Status ===")
             appendLine("Enabled: ${isEnabled}")
-            appendLine("CPS Range: ${minCPSSetting.value} - ${maxCPSSetting.value}")
+            appendLine("CPS Range: ${minCPSSetting.doubleValue} - ${maxCPSSetting.doubleValue}")
             appendLine("Current Target CPS: %.2f".format(getCurrentCPS()))
             appendLine("Total Clicks: $totalClicks")
             appendLine("Session Average CPS: %.2f".format(getSessionCPS()))
-            appendLine("Humanization: ${enableHumanizationSetting.value}")
-            if (enableHumanizationSetting.value) {
-                appendLine("  - Timing Variance: ${(timingVarianceSetting.value * 100).toInt()}%")
-                appendLine("  - Burst Mode: ${burstModeSetting.value}")
-                appendLine("  - Fatigue: ${fatigueEnabledSetting.value} (Level: ${(fatigueLevel * 100).toInt()}%)")
-                appendLine("  - Micro Pauses: ${microPausesSetting.value}")
+            appendLine("Humanization: ${enableHumanizationSetting.booleanValue}")
+            if (enableHumanizationSetting.booleanValue) {
+                appendLine("  - Timing Variance: ${(timingVarianceSetting.doubleValue * 100).toInt()}%")
+                appendLine("  - Burst Mode: ${burstModeSetting.booleanValue}")
+                appendLine("  - Fatigue: ${fatigueEnabledSetting.booleanValue} (Level: ${(fatigueLevel * 100).toInt()}%)")
+                appendLine("  - Micro Pauses: ${microPausesSetting.booleanValue}")
                 appendLine("  - Currently in burst: $isInBurst")
                 appendLine("  - Actual variance: %.1f%%".format(calculateActualVariance() * 100))
             }
-            appendLine("Click Types: L:${leftClickEnabledSetting.value} R:${rightClickEnabledSetting.value}")
-            append("Only while holding: ${onlyWhileHoldingSetting.value}")
+            appendLine("Click Types: L:${leftClickEnabledSetting.booleanValue} R:${rightClickEnabledSetting.booleanValue}")
+            append("Only while holding: ${onlyWhileHoldingSetting.booleanValue}")
         }
     }
 }
\ No newline at end of file
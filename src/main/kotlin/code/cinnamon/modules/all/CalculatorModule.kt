@@ -1,16 +1,19 @@
 package code.cinnamon.modules.all
 
+import code.cinnamon.events.CinnamonEvents
 import code.cinnamon.modules.Module
-import net.fabricmc.fabric.api.client.message.v1.ClientSendMessageEvents
+import code.cinnamon.modules.ModuleCategory
+import code.cinnamon.modules.ModuleInfo
 import net.minecraft.client.MinecraftClient
 import net.objecthunter.exp4j.ExpressionBuilder
 
+@ModuleInfo(category = ModuleCategory.PLAYER, keybinding = "cinnamon.toggle_calculator")
 class CalculatorModule : Module("Calculator", "Perform calculations in chat.") {
 
     private val mc = MinecraftClient.getInstance()
 
     override fun onEnable() {
-        ClientSendMessageEvents.ALLOW_CHAT.register { message ->
+        subscribe(CinnamonEvents.CHAT_SEND, CinnamonEvents.ChatSendListener { message ->
             if (isMathExpression(message)) {
                 val result = calculate(message)
                 mc.inGameHud.chatHud.addMessage(net.minecraft.text.Text.of("[Calc] $message = $result"))
@@ -18,7 +21,7 @@ class CalculatorModule : Module("Calculator", "Perform calculations in chat.") {
             } else {
                 true
             }
-        }
+        })
         println("CalculatorModule enabled.")
     }
 
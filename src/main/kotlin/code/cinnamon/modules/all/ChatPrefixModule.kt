@@ -1,16 +1,12 @@
 package code.cinnamon.modules.all
 
 import code.cinnamon.modules.Module
-import code.cinnamon.util.MinecraftColorCodes
-import com.google.gson.Gson
-import com.google.gson.JsonObject
-import net.fabricmc.loader.api.FabricLoader
-import java.io.File
-import java.io.FileReader
-import java.io.FileWriter
-
+import code.cinnamon.modules.ModuleCategory
+import code.cinnamon.modules.ModuleInfo
 import code.cinnamon.modules.ModeSetting
+import code.cinnamon.util.MinecraftColorCodes
 
+@ModuleInfo(category = ModuleCategory.PLAYER, keybinding = "cinnamon.toggle_chatprefix")
 class ChatPrefixModule : Module("ChatPrefix", "Adds a color prefix to chat messages.") {
 
     private val colorSetting = ModeSetting(
@@ -1,9 +1,12 @@
 package code.cinnamon.modules.all
 
 import code.cinnamon.modules.Module
+import code.cinnamon.modules.ModuleCategory
+import code.cinnamon.modules.ModuleInfo
 import net.minecraft.client.MinecraftClient
 import org.slf4j.LoggerFactory
 
+@ModuleInfo(category = ModuleCategory.PLAYER, keybinding = "cinnamon.toggle_fullbright")
 class FullbrightModule : Module("Fullbright", "Illuminates the world to maximum brightness (ClearColor Method).") {
     private val logger = LoggerFactory.getLogger("cinnamon-fullbright")
 
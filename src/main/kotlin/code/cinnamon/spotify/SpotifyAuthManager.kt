@@ -1,5 +1,6 @@
 package code.cinnamon.spotify
 
+import code.cinnamon.config.ConfigStore
 import com.sun.net.httpserver.HttpExchange
 import com.sun.net.httpserver.HttpHandler
 import com.sun.net.httpserver.HttpServer
@@ -43,7 +44,10 @@ object SpotifyAuthManager {
     private var refreshToken: String? = null
     private var expiresAt: Long = 0L
 
-    private val tokenFile = File("spotify_tokens.json")
+    private const val TOKEN_KEY = "tokens"
+
+    private val legacyTokenFile = File("spotify_tokens.json")
+    private val store = ConfigStore.namespace("spotify", StoredTokenData.serializer())
 
     init {
         loadStoredTokens()
@@ -102,7 +106,7 @@ object SpotifyAuthManager {
     }
 
     fun hasSavedToken(): Boolean {
-        return tokenFile.exists() && tokenFile.length() > 0
+        return store.get(TOKEN_KEY) != null
     }
 
     fun disconnect() {
@@ -110,8 +114,9 @@ object SpotifyAuthManager {
         refreshToken = null
         expiresAt = 0L
 
-        if (tokenFile.exists()) {
-            tokenFile.delete()
+        store.remove(TOKEN_KEY)
+        if (legacyTokenFile.exists()) {
+            legacyTokenFile.delete()
         }
 
         println("[Spotify] Disconnected from Spotify")
@@ -173,10 +178,8 @@ object SpotifyAuthManager {
     private fun saveTokens() {
         if (accessToken != null && refreshToken != null) {
             try {
-                val tokenData = StoredTokenData(accessToken!!, refreshToken!!, expiresAt)
-                val jsonString = json.encodeToString(StoredTokenData.serializer(), tokenData)
-                tokenFile.writeText(jsonString)
-                println("[Spotify] Tokens saved to file")
+                store.put(TOKEN_KEY, StoredTokenData(accessToken!!, refreshToken!!, expiresAt))
+                println("[Spotify] Tokens saved")
             } catch (e: Exception) {
                 println("[Spotify] Failed to save tokens: ${e.message}")
             }
@@ -184,11 +187,13 @@ object SpotifyAuthManager {
     }
 
     private fun loadStoredTokens() {
-        if (tokenFile.exists()) {
-            try {
-                val jsonString = tokenFile.readText()
-                val tokenData = json.decodeFromString<StoredTokenData>(jsonString)
+        store.importLegacy(legacyTokenFile) { legacyJson ->
+            store.put(TOKEN_KEY, json.decodeFromString<StoredTokenData>(legacyJson))
+        }
 
+        val tokenData = store.get(TOKEN_KEY)
+        if (tokenData != null) {
+            try {
                 accessToken = tokenData.accessToken
                 refreshToken = tokenData.refreshToken
                 expiresAt = tokenData.expiresAt
@@ -201,7 +206,7 @@ object SpotifyAuthManager {
                 }
             } catch (e: Exception) {
                 println("[Spotify] Failed to load stored tokens: ${e.message}")
-                tokenFile.delete()
+                store.remove(TOKEN_KEY)
             }
         }
     }